@@ -0,0 +1,303 @@
+package org.scrapper;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.safety.Whitelist;
+import org.jsoup.select.Elements;
+
+/**
+* Name: Benchmark
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Benchmarks of the scrap hot paths, without any network or
+* library other than Jsoup. Reports throughput and allocated bytes per
+* operation of each path, for each page of the corpus.
+*
+* Usage (from the scrapper folder, after building the project):
+*   javac -cp build/classes:lib/jsoup-1.10.1.jar -d build/bench bench/org/scrapper/Benchmark.java
+*   java -cp build/classes:build/bench:lib/jsoup-1.10.1.jar org.scrapper.Benchmark [corpus folder or ""] [seconds]
+*
+* The corpus folder holds saved pages (*.html); without it, pages of three
+* sizes with the Wikipedia layout are generated. The full Parse path runs
+* against a local server that answers with the corpus pages.
+*
+* The rows marked 1.0.5.6 run the code as it was in that version, to be
+* compared with the row above them; the Parse rows end with the speedup.
+*/
+public final class Benchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final Pattern WORDS = Pattern.compile("[\\p{L}\\p{N}]+( [\\p{L}\\p{N}]+){2,}");
+
+    private static volatile Object sink; // keeps the results alive
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> corpus = args.length > 0 && !args[0].isEmpty() ? Load(new File(args[0])) : Generate();
+        long time = (args.length > 1 ? Long.parseLong(args[1]) : 2)*1000;
+
+        HttpServer server = Serve(corpus);
+        System.setProperty("scrapper.wikipedia.source", "http://localhost:"+server.getAddress().getPort()+"/");
+        WikipediaParser parser = WikipediaParser.WIKI;
+        Fetcher fetcher = Builder.getFetcher();
+        Builder.setFetcher(new HttpFetcher()); // the local server needs no politeness limits
+
+        try {
+            System.out.println(String.format(Locale.ROOT, "%-28s %-20s %12s %16s", "benchmark", "page", "ops/s", "bytes/op"));
+            for(Map.Entry<String, String> page : corpus.entrySet()) {
+                String html = page.getValue();
+                Document doc = Jsoup.parse(html, parser.getSource());
+                String content = doc.select(parser.getContentTag()).toString();
+                String paragraphs = doc.body().getElementsByTag("p").toString();
+                List<String> sections = parser.Index(doc).Titles();
+                String section = sections.isEmpty() ? SectionParser.ALL_SECTIONS : sections.get(sections.size()/2);
+
+                Run("Builder.clear", page.getKey(), time, () -> Builder.clear(content));
+                Run("Builder.clear (1.0.5.6)", page.getKey(), time, () -> LegacyClear(content));
+                Run("Options(Document)", page.getKey(), time, () -> parser.Options(doc));
+                Run("MainParseMethod", page.getKey(), time, () -> {
+                    ParseContext context = new ParseContext(parser, page.getKey(), doc);
+                    return context.MainParseMethod(context.Index().Get(section));
+                });
+                if(!section.equals(SectionParser.ALL_SECTIONS)) {
+                    // aims once at the section, then cuts it out of the serialized content
+                    ParseContext legacy = new ParseContext(parser, page.getKey(), doc);
+                    legacy.Core(section);
+                    Run("MainParseMethod(String)", page.getKey(), time, () -> LegacyMainParseMethod(legacy, content));
+                }
+                String phrase = Phrase(doc, sections);
+                if(phrase != null) {
+                    // aims once at words of a paragraph, then runs the alternative method alone
+                    ParseContext alternative = new ParseContext(parser, page.getKey(), doc);
+                    String found = alternative.Core(phrase);
+                    if(found.equals(new ParseContext(parser, page.getKey(), doc).LastParseMethod()))
+                        throw new IllegalStateException("AlternativeParseMethod gave the whole page for \""+phrase+"\"");
+                    Run("AlternativeParseMethod", page.getKey(), time, () -> alternative.AlternativeParseMethod(paragraphs));
+                }
+                Run("LastParseMethod", page.getKey(), time, () -> new ParseContext(parser, page.getKey(), doc).LastParseMethod());
+                double parse = Run("Parse (local server)", page.getKey(), time, () -> parser.Parse(page.getKey(), section));
+                if(!section.equals(SectionParser.ALL_SECTIONS)) {
+                    double legacy = Run("Parse (1.0.5.6)", page.getKey(), time, () -> LegacyParse(parser, page.getKey(), section));
+                    System.out.println(String.format(Locale.ROOT, "%-28s %-20s %11.1fx", "Parse speedup", page.getKey(), parse/legacy));
+                }
+                Run("Stream (local server)", page.getKey(), time, () -> parser.Stream(page.getKey(), section));
+            }
+        }finally {
+            Builder.setFetcher(fetcher);
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Gets some words of a paragraph, as written in the HTML and not a
+     * section title, to be the aim of the alternative method.
+     *
+     * @return null if no paragraph has them
+     */
+    private static String Phrase(Document doc, List<String> sections) {
+        Elements paragraphs = doc.body().getElementsByTag("p");
+        for(int i = 0; i < paragraphs.size(); i++) {
+            Element paragraph = paragraphs.get((paragraphs.size()/2+i) % paragraphs.size());
+            for(TextNode text : paragraph.textNodes()) {
+                Matcher words = WORDS.matcher(text.getWholeText());
+                if(words.find() && !sections.contains(words.group()))
+                    return words.group();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the operation for the given time, after the warmup, and prints
+     * the throughput and the bytes allocated by this thread per operation.
+     *
+     * @return operations per second
+     */
+    private static double Run(String name, String page, long time, Callable<Object> operation) throws Exception {
+        for(int round = 0; round < WARMUP_ROUNDS; round++)
+            Loop(operation, time/WARMUP_ROUNDS);
+
+        long thread = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long ops = Loop(operation, time);
+        long elapsed = System.nanoTime()-start;
+        bytes = THREADS.getThreadAllocatedBytes(thread)-bytes;
+
+        double throughput = ops*1e9/elapsed;
+        System.out.println(String.format(Locale.ROOT, "%-28s %-20s %12.1f %16d",
+                name, page, throughput, bytes/Math.max(ops, 1)));
+        return throughput;
+    }
+
+    private static long Loop(Callable<Object> operation, long time) throws Exception {
+        long end = System.currentTimeMillis()+time;
+        long ops = 0;
+        do {
+            sink = operation.call();
+            ops++;
+        }while(System.currentTimeMillis() < end);
+        return ops;
+    }
+
+    /*
+    * ===========================    CORPUS    =================================
+    */
+
+    private static Map<String, String> Load(File folder) throws IOException {
+        Map<String, String> corpus = new LinkedHashMap<>();
+        File[] files = folder.listFiles((File dir, String name) -> name.endsWith(".html"));
+        if(files == null || files.length == 0)
+            throw new IOException("No pages (*.html) in "+folder);
+        for(File file : files)
+            corpus.put(file.getName(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        return corpus;
+    }
+
+    /**
+     * Generates pages with the layout of the Wikipedia articles.
+     */
+    private static Map<String, String> Generate() {
+        Map<String, String> corpus = new LinkedHashMap<>();
+        corpus.put("small.html", Page(5, 3));
+        corpus.put("medium.html", Page(30, 6));
+        corpus.put("large.html", Page(120, 10));
+        return corpus;
+    }
+
+    private static String Page(int sections, int paragraphs) {
+        StringBuilder page = new StringBuilder();
+        page.append("<html><head><title>Artigo – Wikipédia</title></head><body><div id=\"mw-content-text\">");
+        page.append("<p>Introdução do artigo com uma referência<sup class=\"reference\">[1]</sup>.</p>");
+        for(int s = 0; s < sections; s++) {
+            String title = "Seção "+s;
+            int level = s % 3 == 0 ? 2 : 3;
+            page.append("<h").append(level).append("><span class=\"mw-headline\" id=\"S").append(s).append("\">")
+                .append(title).append("</span><span class=\"mw-editsection\"><span class=\"mw-editsection-bracket\">[</span>")
+                .append("<a href=\"#\">editar</a><span> | </span><a href=\"#\">editar código-fonte</a>")
+                .append("<span class=\"mw-editsection-bracket\">]</span></span></h").append(level).append(">");
+            for(int p = 0; p < paragraphs; p++) {
+                page.append("<p>Texto do parágrafo ").append(p).append(" da ").append(title)
+                    .append(", com <a href=\"/wiki/Link\">ligações</a>, <b>ênfase</b> e &amp; entidades")
+                    .append("<sup class=\"reference\">[").append(p+2).append("]</sup>. Outra frase do mesmo parágrafo.</p>");
+            }
+            page.append("<ul><li>Item um</li><li>Item dois</li></ul>");
+        }
+        page.append("</div></body></html>");
+        return page.toString();
+    }
+
+    /**
+     * Answers each corpus page at /name, like the source of the parser.
+     */
+    private static HttpServer Serve(Map<String, String> corpus) throws IOException {
+        // without it, the answers on kept-alive connections wait for the delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String page = corpus.get(exchange.getRequestURI().getPath().substring(1));
+            byte[] body = page != null ? page.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(page != null ? 200 : 404, body.length > 0 ? body.length : -1);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static String LegacyMainParseMethod(ParseContext context, String content) {
+        return context.MainParseMethod(content);
+    }
+
+    /**
+     * Parse of a section as it was in 1.0.5.6, kept for comparison: the
+     * fetched page is serialized and parsed again, the options are cleaned
+     * from their markup, the page is serialized twice more to be verified,
+     * and the section is cut out of the serialized content.
+     */
+    private static String LegacyParse(ParserWithMenu parser, String query, String section) throws IOException {
+        String url = parser.getSource()+query;
+        Page page = Builder.getFetcher().Fetch(url);
+        Document code = Jsoup.parse(new ByteArrayInputStream(page.getBody()), page.getCharset(), url);
+        Document doc = Jsoup.parse(code.toString());
+
+        String[] options = doc.select(parser.getMainTag()).toString().split("\n");
+        String aim = null, nextOption = null;
+        for(int i = 0; i < options.length; i++) {
+            String option = LegacyClear(options[i]);
+            if(aim != null) {
+                nextOption = option;
+                break;
+            }
+            if(option.equals(section))
+                aim = option;
+        }
+        if(aim == null || code.toString().isEmpty() || !code.toString().contains(aim))
+            throw new IllegalStateException("Section not found: "+section);
+
+        sink = doc.body().getElementsByTag("p").toString(); // the text of the alternative method
+        String all = doc.body().select(parser.getContentTag()).toString();
+        if(!all.contains(aim))
+            throw new IllegalStateException("Section out of the content: "+section);
+
+        Whitelist wl = new Whitelist();
+        wl.addTags(parser.getTag(), "p");
+        String cleanCode = parser.RemoveUnnecessaryThings(Jsoup.clean(all, wl));
+        String ocurrency = "<"+parser.getTag()+">"+aim+"</"+parser.getTag()+">";
+        String limit = "<"+parser.getTag()+">"+nextOption+"</"+parser.getTag()+">";
+        cleanCode = cleanCode.substring(cleanCode.lastIndexOf(ocurrency)+ocurrency.length());
+        if(cleanCode.contains(limit))
+            cleanCode = cleanCode.substring(0, cleanCode.indexOf(limit));
+        return LegacyClear(cleanCode);
+    }
+
+    /**
+     * Builder.clear as it was in 1.0.5.6, kept for comparison.
+     */
+    private static String LegacyClear(String args) {
+        args = Jsoup.parse(args).text();
+        char[] array = args.toCharArray();
+        for(int i = 0; i < array.length; i++){
+            if(array[i] == '[') {
+                array[i] = '#';
+                i++;
+                try{
+                    while(array[i] != ']'){
+                        array[i] = '#';
+                        i++;
+                    }
+                    array[i] = '#';
+                }catch(ArrayIndexOutOfBoundsException e) { }
+            }
+        }
+        args = new String(array).replace("#", "");
+        if(args.contains("."))
+            args = "   "+args.replace(".", ".\n\n   ");
+        return args;
+    }
+
+}
@@ -0,0 +1,422 @@
+package org.scrapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+* Name: BatchRunner
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Command line runner for bulk jobs, without the GUI. Reads a
+* query per line, optionally followed by a tab and the section, scraps them
+* in parallel with a BatchScraper and streams the results, as JSON Lines or
+* TSV, through a buffered writer. A checkpoint file keeps how many input
+* lines are finished, so a job stopped midway is resumed from there; the
+* lines finished after the checkpoint may be written again (at least once).
+*/
+public final class BatchRunner {
+
+    public enum Format { JSONL, TSV }
+
+    public static final int DEFAULT_WORKERS = 8;
+    public static final int CHECKPOINT_EVERY = 1000; // lines
+
+    private static final String USAGE =
+        "Usage: BatchRunner [--input FILE] [--output FILE] [--format jsonl|tsv] [--workers N]\n"+
+        "                   [--checkpoint FILE] [--section NAME] [--site NAME] [--profiles FILE] [--dump FILE]\n"+
+        "  Reads a query per line (query<TAB>section), '-' or no input is stdin.\n"+
+        "  With --dump the pages come from a local WARC-style dump, not the network.\n"+
+        "  TSV columns: query, section, title, content, error.";
+
+    private final ParserWithMenu parser;
+    private final int workers;
+    private final Format format;
+    private final File checkpoint; // null keeps no checkpoint
+    private Fetcher fetcher = null; // null uses the parser's
+    private String section = SectionParser.ALL_SECTIONS; // used by lines without a section
+
+    // progress, guarded by this
+    private Writer out;
+    private long done = 0; // input lines finished in a row from the start
+    private BitSet ahead = new BitSet(); // lines finished after done, by distance to it
+    private long saved = 0; // done when the checkpoint was written
+    private long results = 0, errors = 0;
+    private IOException failure = null; // first error writing the output
+
+    public BatchRunner(ParserWithMenu parser, int workers, Format format, File checkpoint) {
+        if(parser == null || format == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        if(workers < 1)
+            throw new IllegalArgumentException("Workers must be positive.");
+        this.parser = parser;
+        this.workers = workers;
+        this.format = format;
+        this.checkpoint = checkpoint;
+    }
+
+    public void setSection(String section) {
+        if(section == null)
+            throw new RuntimeException("Section must not be null.");
+        this.section = section;
+    }
+
+    /**
+     * Gets the pages through the fetcher, like a dump, instead of the
+     * parser's; the parser itself is not changed.
+     *
+     * @param fetcher null goes back to the parser's
+     */
+    public void setFetcher(Fetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    public synchronized long getResults() {
+        return results;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets the lines finished before this run, from the checkpoint.
+     *
+     * @return 0 if there is no checkpoint
+     * @throws IOException
+     */
+    public long Resume() throws IOException {
+        if(checkpoint == null || !checkpoint.isFile())
+            return 0;
+        String text = new String(Files.readAllBytes(checkpoint.toPath()), StandardCharsets.UTF_8).trim();
+        try {
+            return text.isEmpty() ? 0 : Long.parseLong(text);
+        }catch(NumberFormatException ex) {
+            throw new IOException("Invalid checkpoint: "+checkpoint, ex);
+        }
+    }
+
+    /**
+     * Scraps every query of the input, skipping the lines already finished,
+     * and waits for them. Queries are read as the workers free up, so the
+     * input is never held in memory.
+     *
+     * @param in
+     * @param out
+     * @return lines finished, counting the previous runs
+     * @throws IOException reading the input or writing the output
+     * @throws InterruptedException
+     */
+    public long Run(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        long skip = Resume();
+        synchronized(this) {
+            this.out = out;
+            this.done = skip;
+            this.saved = skip;
+            this.ahead = new BitSet();
+        }
+        if(skip > 0)
+            Log.info(() -> "> Resuming after "+skip+" lines.");
+
+        try(BatchScraper scraper = new BatchScraper(parser, fetcher, workers, Runtime.getRuntime().availableProcessors())) {
+            long number = 0;
+            for(String line; (line = in.readLine()) != null; number++) {
+                if(number < skip)
+                    continue;
+                if(Failed())
+                    break;
+                String text = line.trim();
+                if(text.isEmpty() || text.startsWith("#")) {
+                    Finished(number);
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                String query = (tab < 0 ? line : line.substring(0, tab)).trim();
+                String wanted = tab < 0 || line.substring(tab+1).trim().isEmpty() ? section : line.substring(tab+1).trim();
+                scraper.Submit(query, wanted, new Line(number, wanted));
+            }
+            scraper.Await();
+        }
+
+        synchronized(this) {
+            if(failure != null)
+                throw failure;
+            out.flush();
+            Save();
+            return done;
+        }
+    }
+
+    /**
+     * Receives the result of one input line.
+     */
+    private final class Line implements BatchScraper.Listener {
+        private final long number;
+        private final String section;
+
+        private Line(long number, String section) {
+            this.number = number;
+            this.section = section;
+        }
+
+        @Override
+        public void onResult(ParseResult result) {
+            Write(number, Record(result.getQuery(), result.getSection(), result.getTitle(), result.getContent(), null), false);
+        }
+
+        @Override
+        public void onError(String query, Exception error) {
+            Write(number, Record(query, section, null, null, Message(error)), true);
+        }
+    }
+
+    private synchronized void Write(long number, String record, boolean error) {
+        if(failure != null)
+            return;
+        try {
+            out.write(record);
+            if(error)
+                errors++;
+            else
+                results++;
+            Finished(number);
+        }catch(IOException ex) {
+            failure = ex;
+        }
+    }
+
+    private synchronized boolean Failed() {
+        return failure != null;
+    }
+
+    /**
+     * Marks the line as finished and moves the checkpoint on, once every
+     * line before it is finished too.
+     */
+    private synchronized void Finished(long number) throws IOException {
+        ahead.set((int) (number-done));
+        int run = ahead.nextClearBit(0);
+        if(run > 0) {
+            done += run;
+            ahead = ahead.get(run, Math.max(run, ahead.length()));
+        }
+        if(done-saved >= CHECKPOINT_EVERY) {
+            out.flush(); // the results must be out before the checkpoint says so
+            Save();
+        }
+    }
+
+    private synchronized void Save() throws IOException {
+        if(checkpoint == null || done == saved)
+            return;
+        File temp = new File(checkpoint.getPath()+".tmp");
+        Files.write(temp.toPath(), (done+"\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(temp.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        saved = done;
+    }
+
+    /*
+    * ===========================    RECORDS    ================================
+    */
+
+    private String Record(String query, String section, String title, String content, String error) {
+        StringBuilder record = new StringBuilder(64+(content != null ? content.length() : 0));
+        if(format == Format.TSV) {
+            Tsv(record, query).append('\t');
+            Tsv(record, section).append('\t');
+            Tsv(record, title).append('\t');
+            Tsv(record, content).append('\t');
+            Tsv(record, error);
+        }else {
+            record.append("{\"query\":");
+            Json(record, query);
+            record.append(",\"section\":");
+            Json(record, section);
+            if(error == null) {
+                record.append(",\"title\":");
+                Json(record, title);
+                record.append(",\"content\":");
+                Json(record, content);
+            }else {
+                record.append(",\"error\":");
+                Json(record, error);
+            }
+            record.append('}');
+        }
+        return record.append('\n').toString();
+    }
+
+    static String Message(Throwable error) {
+        StringBuilder message = new StringBuilder();
+        for(Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if(cause.getMessage() == null)
+                continue;
+            if(message.length() > 0)
+                message.append(": ");
+            message.append(cause.getMessage().replace('\n', ' '));
+        }
+        return message.length() > 0 ? message.toString() : error.getClass().getName();
+    }
+
+    static StringBuilder Json(StringBuilder into, String text) {
+        if(text == null)
+            return into.append("null");
+        into.append('"');
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch(c) {
+                case '"': into.append("\\\""); break;
+                case '\\': into.append("\\\\"); break;
+                case '\n': into.append("\\n"); break;
+                case '\r': into.append("\\r"); break;
+                case '\t': into.append("\\t"); break;
+                default:
+                    if(c < 0x20 || c == '\u2028' || c == '\u2029')
+                        into.append(String.format("\\u%04x", (int) c));
+                    else
+                        into.append(c);
+            }
+        }
+        return into.append('"');
+    }
+
+    private static StringBuilder Tsv(StringBuilder into, String text) {
+        if(text == null)
+            return into;
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch(c) {
+                case '\\': into.append("\\\\"); break;
+                case '\n': into.append("\\n"); break;
+                case '\r': into.append("\\r"); break;
+                case '\t': into.append("\\t"); break;
+                default: into.append(c);
+            }
+        }
+        return into;
+    }
+
+    /*
+    * =============================    MAIN    =================================
+    */
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        // stdout may carry the results, so the log goes to stderr
+        Log.setAppender(new Log.AsyncAppender(new Log.ConsoleAppender(System.err), Log.AsyncAppender.DEFAULT_CAPACITY));
+        try {
+            System.exit(Run(args));
+        }catch(IllegalArgumentException ex) {
+            System.err.println(ex.getMessage()+"\n"+USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Runs a job from the command line arguments.
+     *
+     * @param args
+     * @return exit code: 0 when done, 1 on error
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    static int Run(String[] args) {
+        String input = "-", output = "-", section = SectionParser.ALL_SECTIONS, site = null, profiles = null, state = null, dump = null;
+        Format format = Format.JSONL;
+        int workers = DEFAULT_WORKERS;
+
+        for(int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if(option.equals("-h") || option.equals("--help"))
+                throw new IllegalArgumentException("JScrapper batch runner.");
+            if(i+1 >= args.length)
+                throw new IllegalArgumentException("Missing value of "+option);
+            String value = args[++i];
+            switch(option) {
+                case "--input": input = value; break;
+                case "--output": output = value; break;
+                case "--section": section = value; break;
+                case "--site": site = value; break;
+                case "--profiles": profiles = value; break;
+                case "--checkpoint": state = value; break;
+                case "--dump": dump = value; break;
+                case "--format":
+                    try {
+                        format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+                    }catch(IllegalArgumentException ex) {
+                        throw new IllegalArgumentException("Unknown format: "+value);
+                    }
+                    break;
+                case "--workers":
+                    try {
+                        workers = Integer.parseInt(value);
+                    }catch(NumberFormatException ex) {
+                        throw new IllegalArgumentException("Invalid workers: "+value);
+                    }
+                    break;
+                default: throw new IllegalArgumentException("Unknown option: "+option);
+            }
+        }
+
+        long started = System.nanoTime();
+        try {
+            ParserWithMenu parser = Parser(site, profiles);
+            BatchRunner runner = new BatchRunner(parser, workers, format, state != null ? new File(state) : null);
+            runner.setSection(section);
+            boolean append = runner.Resume() > 0;
+
+            long done;
+            try(DumpFetcher pages = dump != null ? new DumpFetcher(new File(dump)) : null) {
+                runner.setFetcher(pages);
+                InputStream source = input.equals("-") ? System.in : new FileInputStream(input);
+                OutputStream target = output.equals("-") ? System.out : new FileOutputStream(output, append);
+                try(BufferedReader in = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8));
+                    Writer out = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 1 << 16)) {
+                    done = runner.Run(in, out);
+                }
+            }
+            double seconds = (System.nanoTime()-started)/1e9;
+            Log.info(() -> String.format(Locale.ROOT, "> Done: %d lines, %d results, %d errors in %.1fs.",
+                    done, runner.getResults(), runner.getErrors(), seconds));
+            Log.flush();
+            return 0;
+
+        }catch(IOException ex) {
+            Log.error(() -> "Batch error: "+Message(ex));
+        }catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Log.error(() -> "Batch interrupted.");
+        }
+        Log.flush();
+        return 1;
+    }
+
+    /**
+     * Gets the parser of the site: a profile by name, or Wikipedia.
+     */
+    static ParserWithMenu Parser(String site, String profiles) throws IOException {
+        if(site == null && profiles == null)
+            return WikipediaParser.WIKI;
+        Map<String, SiteProfile> sites = profiles != null ? SiteProfile.Load(new File(profiles)) : SiteProfile.Defaults();
+        if(site == null && sites.size() == 1)
+            return sites.values().iterator().next();
+        SiteProfile profile = sites.get(site);
+        if(profile == null)
+            throw new IllegalArgumentException("Unknown site: "+site+", known: "+sites.keySet());
+        return profile;
+    }
+
+}
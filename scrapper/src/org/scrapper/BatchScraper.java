@@ -0,0 +1,193 @@
+package org.scrapper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+* Name: BatchScraper
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Scraps many queries in parallel. Pages are fetched by a pool
+* sized by the concurrency limit (the threads mostly wait on the network)
+* and the sections are extracted by a pool bounded by the processors.
+* Results are delivered as soon as each query finishes. The pages may come
+* from another fetcher than the parser's, like a dump, without changing
+* the parser, which other callers may be sharing.
+*
+* Each query counts in the parse.total and parse.errors metrics, like
+* ParserWithMenu.Parse, and goes through the result cache of the parser,
+* unless the pages come from another fetcher.
+*/
+public final class BatchScraper implements AutoCloseable{
+
+    /**
+     * Receives the results; it is called by the worker threads, so it must be thread-safe.
+     */
+    public interface Listener {
+        public void onResult(ParseResult result);
+        public void onError(String query, Exception error);
+    }
+
+    private final ParserWithMenu parser;
+    private final Fetcher fetcher; // null uses the parser's
+    private final int concurrency;
+    private final Semaphore inFlight; // queries being fetched or extracted
+    private final ExecutorService fetchers;
+    private final ExecutorService workers;
+
+    public BatchScraper(ParserWithMenu parser, int concurrency) {
+        this(parser, concurrency, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchScraper(ParserWithMenu parser, int concurrency, int workers) {
+        this(parser, null, concurrency, workers);
+    }
+
+    /**
+     * @param parser
+     * @param fetcher gets the pages instead of the fetcher of the parser; null uses it
+     * @param concurrency queries being fetched or extracted at a time
+     * @param workers extraction threads
+     */
+    public BatchScraper(ParserWithMenu parser, Fetcher fetcher, int concurrency, int workers) {
+        if(parser == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        if(concurrency < 1 || workers < 1)
+            throw new IllegalArgumentException("Concurrency and workers must be positive.");
+        this.parser = parser;
+        this.fetcher = fetcher;
+        this.concurrency = concurrency;
+        this.inFlight = new Semaphore(concurrency);
+        this.fetchers = Executors.newFixedThreadPool(concurrency, Threads("scrapper-fetch"));
+        this.workers = Executors.newFixedThreadPool(workers, Threads("scrapper-parse"));
+    }
+
+    /**
+     * Scraps the section of all queries and waits for them.
+     *
+     * @param queries
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @param listener
+     * @throws InterruptedException
+     */
+    public void Scrap(Iterable<String> queries, String section, Listener listener) throws InterruptedException {
+        for(String query : queries)
+            Submit(query, section, listener);
+        Await();
+    }
+
+    /**
+     * Schedules one query; blocks while the concurrency limit is reached,
+     * so a long stream of queries is never queued all at once.
+     *
+     * @param query
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @param listener
+     * @throws InterruptedException
+     */
+    public void Submit(String query, String section, Listener listener) throws InterruptedException {
+        if(query == null || listener == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        String wanted = section != null ? section : SectionParser.ALL_SECTIONS;
+
+        inFlight.acquire();
+        try {
+            fetchers.execute(() -> {
+                long started = System.nanoTime();
+                // the cache is keyed by the source, so it holds only the pages of the parser's fetcher
+                ResultCache results = fetcher == null ? parser.getCache() : null;
+                ParseResult cached = results != null ? results.Peek(parser.getSource(), query, wanted) : null;
+                if(cached != null) {
+                    Metrics.time("parse.total", started);
+                    try {
+                        listener.onResult(cached);
+                    }finally {
+                        inFlight.release();
+                    }
+                    return;
+                }
+                try {
+                    ParseContext context = parser.Open(query, fetcher != null ? fetcher : parser.getFetcher());
+                    workers.execute(() -> Extract(context, wanted, listener, results, started));
+                }catch(Exception ex) {
+                    Metrics.count("parse.errors");
+                    Metrics.time("parse.total", started);
+                    Fail(query, ex, listener);
+                    inFlight.release();
+                }
+            });
+        }catch(RuntimeException ex) {
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits until every submitted query is finished.
+     *
+     * @throws InterruptedException
+     */
+    public void Await() throws InterruptedException {
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+    }
+
+    /**
+     * Extracts the section of the fetched page.
+     *
+     * @param results the cache to keep the result in, or null
+     * @param started System.nanoTime() when the query started
+     */
+    private void Extract(ParseContext context, String section, Listener listener, ResultCache results, long started) {
+        try {
+            ParseResult result;
+            try {
+                context.Core(section);
+                result = context.toResult();
+                if(results != null)
+                    results.Put(parser.getSource(), context.getQuery(), section, result);
+            }catch(Exception ex) {
+                Metrics.count("parse.errors");
+                Fail(context.getQuery(), ex, listener);
+                return;
+            }finally {
+                Metrics.time("parse.total", started);
+            }
+            listener.onResult(result);
+        }finally {
+            inFlight.release();
+        }
+    }
+
+    private void Fail(String query, Exception ex, Listener listener) {
+        try {
+            listener.onError(query, parser.ParsingError(ex));
+        }catch(RuntimeException ignored) { }
+    }
+
+    @Override
+    public void close() {
+        fetchers.shutdown();
+        workers.shutdown();
+        try {
+            fetchers.awaitTermination(1, TimeUnit.MINUTES);
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory Threads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return (Runnable task) -> {
+            Thread thread = new Thread(task, name+"-"+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
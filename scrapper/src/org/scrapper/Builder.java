@@ -1,15 +1,20 @@
 package org.scrapper;
 
-import java.awt.HeadlessException;
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
+import java.util.Arrays;
 import javax.swing.JOptionPane;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
 
 /**
 * Name: Builder
 * Date: 15-12-2016
-* Update: 05-01-2017
+* Update: 17-10-2026
 * Description: Helper class.
 */
 public final class Builder{
@@ -27,6 +32,31 @@ public final class Builder{
     public static final String ANSI_CYAN = "\u001B[36m";
     public static final String ANSI_WHITE = "\u001B[37m";
 
+    /**
+     * Fetcher used by connect; may be replaced, e.g. by a stub in tests.
+     * Requests are scheduled per host, within the limits of PoliteFetcher.
+     */
+    private static volatile Fetcher fetcher = new PoliteFetcher(new HttpFetcher());
+
+    public static Fetcher getFetcher() {
+        return fetcher;
+    }
+
+    /**
+     * Pages being downloaded and parsed; callers of the same url and fetcher share one
+     */
+    private static final SingleFlight<Document> documents = new SingleFlight<>();
+
+    public static SingleFlight<Document> getDocuments() {
+        return documents;
+    }
+
+    public static void setFetcher(Fetcher fetcher) {
+        if(fetcher == null)
+            throw new RuntimeException("Fetcher must not be null.");
+        Builder.fetcher = fetcher;
+    }
+
     /**
      * Prints text in the default output stream
      */
@@ -40,51 +70,36 @@ public final class Builder{
      */
     public static void print(String[] args) {
         for(String arg : args)
-            System.out.println(arg);
+            Log.write(Log.Level.INFO, arg);
     }
 
     /**
-     * Prints text in the default output stream
+     * Prints text in the default output stream, through Log at INFO.
+     * Prefer Log.info with a supplier when the text costs to build.
      *
      * @param args 
      */
     public static void print(String args) {
-        try{
-            if(args.startsWith("> ")) {
-                args = ANSI_BLUE+args.replace("\n", "");
-                System.out.println(args);
-            }else
-                System.out.println(ANSI_RESET+args);
-        }catch(Exception ex){
-            if(args != null)
-                print(ex.getMessage()+"\n", "red");
-        }
+        Log.write(Log.Level.INFO, args);
     }
 
     /**
-     * Prints text in the default output stream
+     * Prints text in the default output stream; red and yellow are written
+     * as errors and warnings, the other colors as INFO in their ANSI color
+     * (dropped by LogSink, like in the GUI).
      *
      * @param args 
      * @param color 
      */
-    @SuppressWarnings("InfiniteRecursion")
     public static void print(String args, String color) {
-        try{
-            switch(color) {
-                case "red": args = ANSI_RED+args.replace("\n", ""); break;
-                case "green": args = ANSI_GREEN+args.replace("\n", ""); break;
-                case "yellow": args = ANSI_YELLOW+args.replace("\n", ""); break;
-                case "blue": args = ANSI_BLUE+args.replace("\n", ""); break;
-                case "purple": args = ANSI_PURPLE+args.replace("\n", ""); break;
-                case "cyan": args = ANSI_CYAN+args.replace("\n", ""); break;
-                default: args = ANSI_RESET+args.replace("\n", "");
-            }
-            if(args.startsWith("> "))
-                System.out.println(args);
-            else
-                System.out.println(args+"\n");
-        }catch(Exception ex){
-            print(ex.getMessage()+"\n", "red");
+        switch(color) {
+            case "red": Log.write(Log.Level.ERROR, args); break;
+            case "yellow": Log.write(Log.Level.WARN, args); break;
+            case "green": Log.write(Log.Level.INFO, ANSI_GREEN+args.replace("\n", "")+"\n"); break;
+            case "blue": Log.write(Log.Level.INFO, ANSI_BLUE+args.replace("\n", "")+"\n"); break;
+            case "purple": Log.write(Log.Level.INFO, ANSI_PURPLE+args.replace("\n", "")+"\n"); break;
+            case "cyan": Log.write(Log.Level.INFO, ANSI_CYAN+args.replace("\n", "")+"\n"); break;
+            default: Log.write(Log.Level.INFO, args);
         }
     }
 
@@ -96,7 +111,7 @@ public final class Builder{
     public static void show(String args) {
         try{
             JOptionPane.showMessageDialog(null, args);
-        }catch(HeadlessException ex){
+        }catch(UnsupportedOperationException ex){ // HeadlessException, caught by its parent so the batch runner never loads AWT
             print(ex.getMessage()+"\n", "red");
         }
     }
@@ -112,13 +127,16 @@ public final class Builder{
     }
 
     /**
-     * Gets the input by a jDialog
+     * Gets the input by a jDialog; without a display (headless JVM)
+     * the first option is returned, as it is the dialog default.
      *
      * @param args 
      * @param options 
      * @return 
      */
     public static String get(String args, Object[] options) {
+        if(GraphicsEnvironment.isHeadless())
+            return options[0].toString();
         return JOptionPane.showInputDialog(null, args, "Seleção", -1, null, options, options[0]).toString();
     }
 
@@ -129,42 +147,71 @@ public final class Builder{
      * @return 
      */
     public static String clear(String args) {
-        args = Jsoup.parse(args).text();
-        
-        // Removes the brackets and their contents
-        char[] array = args.toCharArray();
-        
-        for(int i = 0; i < array.length; i++){
-            if(array[i] == '[') {
-                array[i] = '#';
-                i++;
-                try{
-                    while(array[i] != ']'){
-                        array[i] = '#';
-                        i++;
-                    }
-                    array[i] = '#';
-                }catch(ArrayIndexOutOfBoundsException e) { }
-            } 
-        }
-        args = new String(array).replace("#", "");
+        return new TextNormalizer(args.length()).Append(Jsoup.parse(args), (Element element) -> false).toString();
+    }
 
-        // Split into paragraphs
-        if(args.contains("."))
-            args = "   "+args.replace(".", ".\n\n   ");
-        
-        return args;
+    /**
+     * Cleans plain text, like the one got from the DOM
+     *
+     * @param args 
+     * @return 
+     */
+    public static String normalize(String args) {
+        return TextNormalizer.Normalize(args);
     }
 
     /**
-     * Connects to the webpage.
+     * Connects to the webpage. Concurrent calls for the same url share one
+     * download and one document, which must be read only.
      *
      * @param url
      * @return
      * @throws IOException
      */
     public static Document connect(String url) throws IOException{
-        return Jsoup.connect(url).get();
+        return connect(url, fetcher);
+    }
+
+    /**
+     * Connects to the webpage with the given fetcher.
+     *
+     * @param url
+     * @param fetcher
+     * @return
+     * @throws IOException
+     */
+    public static Document connect(String url, Fetcher fetcher) throws IOException{
+        Metrics.count("fetch.requests");
+        // keyed by the fetcher too: a dump and the network never share a page
+        return documents.Get(Arrays.asList(fetcher, url), () -> load(url, fetcher));
+    }
+
+    /**
+     * Downloads and parses the page, measuring both.
+     */
+    private static Document load(String url, Fetcher fetcher) throws IOException{
+        long started = System.nanoTime();
+        Page page = fetcher.Fetch(url);
+        Metrics.time("fetch", started);
+        Metrics.record("fetch.bytes", page.getBody().length);
+
+        started = System.nanoTime();
+        Document doc = page.toDocument();
+        Metrics.time("parse.dom", started);
+        if(Metrics.isEnabled()) {
+            int[] nodes = {0};
+            new NodeTraversor(new NodeVisitor() {
+                @Override
+                public void head(Node node, int depth) {
+                    nodes[0]++;
+                }
+
+                @Override
+                public void tail(Node node, int depth) { }
+            }).traverse(doc);
+            Metrics.record("parse.dom.nodes", nodes[0]);
+        }
+        return doc;
     }
     
     
@@ -0,0 +1,251 @@
+package org.scrapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+* Name: CachingFetcher
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Keeps the raw pages on disk, keyed by url, and revalidates
+* them with conditional requests (If-None-Match / If-Modified-Since), so
+* an unchanged page costs a 304 instead of a new download. Only the
+* validators are read to make the request; the body is read from disk on a
+* 304 alone. The cache is bounded in bytes and drops the least recently
+* used pages first.
+*/
+public final class CachingFetcher implements Fetcher {
+
+    private static final String SUFFIX = ".page";
+    private static final int HEADER_BUFFER = 512; // bytes, enough for the url and the validators
+
+    private final Fetcher fetcher;
+    private final File directory;
+    private final long maxSize; // bytes
+
+    // file name -> size, in access order (eldest first)
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long size = 0;
+
+    public CachingFetcher(Fetcher fetcher, File directory, long maxSize) throws IOException {
+        if(fetcher == null || directory == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        if(maxSize <= 0)
+            throw new IllegalArgumentException("Cache size must be positive.");
+        if(!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create the cache directory "+directory);
+        this.fetcher = fetcher;
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Load();
+    }
+
+    /**
+     * Rebuilds the index from the files left by a previous run,
+     * using the modification time as the last access.
+     */
+    private void Load() {
+        File[] files = directory.listFiles((File dir, String name) -> name.endsWith(SUFFIX));
+        if(files == null)
+            return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        synchronized(index) {
+            for(File file : files) {
+                index.put(file.getName(), file.length());
+                size += file.length();
+            }
+            Evict();
+        }
+    }
+
+    @Override
+    public Page Fetch(String url, Map<String, String> headers) throws IOException {
+        String name = Name(url);
+        Header cached = ReadHeader(name);
+
+        Map<String, String> request = headers;
+        if(cached != null) {
+            request = new HashMap<>(headers);
+            if(cached.etag != null)
+                request.put("If-None-Match", cached.etag);
+            if(cached.lastModified != null)
+                request.put("If-Modified-Since", cached.lastModified);
+        }
+
+        Page page = fetcher.Fetch(url, request);
+
+        if(page.getStatus() == Page.NOT_MODIFIED && cached != null) {
+            Page kept = ReadPage(name);
+            if(kept != null) {
+                Touch(name);
+                Metrics.count("cache.page.hits");
+                return kept;
+            }
+            page = fetcher.Fetch(url, headers); // dropped meanwhile, taken whole again
+        }
+        Metrics.count("cache.page.misses");
+
+        if(page.getEtag() != null || page.getLastModified() != null)
+            Write(name, page);
+        return page;
+    }
+
+    public long getSize() {
+        synchronized(index) {
+            return size;
+        }
+    }
+
+    /*
+    * ===========================    STORAGE    ================================
+    */
+
+    /**
+     * Fields written before the body of a cached page.
+     */
+    private static final class Header {
+        private final String url;
+        private final String charset;
+        private final String etag;
+        private final String lastModified;
+
+        private Header(DataInputStream in) throws IOException {
+            this.url = in.readUTF();
+            this.charset = Empty(in.readUTF());
+            this.etag = Empty(in.readUTF());
+            this.lastModified = Empty(in.readUTF());
+        }
+    }
+
+    /**
+     * Reads the validators of the cached page, without its body.
+     *
+     * @return null if the page is not cached
+     */
+    private Header ReadHeader(String name) {
+        synchronized(index) {
+            if(!index.containsKey(name))
+                return null;
+        }
+        File file = new File(directory, name);
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), HEADER_BUFFER))) {
+            return new Header(in);
+        }catch(IOException ex) {
+            Remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the cached page whole, once the server tells it did not change.
+     *
+     * @return null if the page is no longer cached
+     */
+    private Page ReadPage(String name) {
+        File file = new File(directory, name);
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Header header = new Header(in);
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Page(header.url, Page.OK, body, header.charset, header.etag, header.lastModified);
+        }catch(IOException ex) {
+            Remove(name);
+            return null;
+        }
+    }
+
+    private void Write(String name, Page page) {
+        File file = new File(directory, name);
+        try {
+            File temp = File.createTempFile("page", ".tmp", directory);
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeUTF(page.getUrl());
+                out.writeUTF(Null(page.getCharset()));
+                out.writeUTF(Null(page.getEtag()));
+                out.writeUTF(Null(page.getLastModified()));
+                out.writeInt(page.getBody().length);
+                out.write(page.getBody());
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }catch(IOException ex) {
+            Log.error(() -> "Cache error: "+ex.getMessage()+"\n");
+            return;
+        }
+        synchronized(index) {
+            Long old = index.put(name, file.length());
+            size += file.length()-(old != null ? old : 0);
+            Evict();
+        }
+    }
+
+    private void Touch(String name) {
+        synchronized(index) {
+            index.get(name);
+        }
+        new File(directory, name).setLastModified(System.currentTimeMillis());
+    }
+
+    private void Remove(String name) {
+        synchronized(index) {
+            Long old = index.remove(name);
+            if(old != null)
+                size -= old;
+        }
+        new File(directory, name).delete();
+    }
+
+    /**
+     * Drops the least recently used pages until the cache fits; the caller holds the lock.
+     */
+    private void Evict() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while(size > maxSize && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            size -= entry.getValue();
+            eldest.remove();
+            new File(directory, entry.getKey()).delete();
+        }
+    }
+
+    /*
+    * ===========================    HELPERS    ================================
+    */
+
+    private static String Name(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length*2+SUFFIX.length());
+            for(byte b : hash)
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return name.append(SUFFIX).toString();
+        }catch(NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static String Null(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String Empty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+}
@@ -0,0 +1,398 @@
+package org.scrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+* Name: DumpFetcher
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Fetcher that reads the pages from a local dump instead of the
+* network, so a whole corpus is scraped offline, limited by the processors.
+* The dump is a WARC-style archive: "response" records (HTTP headers and
+* body) or "resource" records (the HTML alone), each with its
+* WARC-Target-URI. The file is memory-mapped and indexed by page title
+* (the path of the url after /wiki/ or the host) when opened; a fetch copies
+* only the body, undoing the chunked transfer and the gzip or deflate
+* encoding that crawlers keep in the HTTP answers.
+*/
+public final class DumpFetcher implements Fetcher, Closeable{
+
+    private static final long MAX_MAPPED = Integer.MAX_VALUE; // bytes, larger files are mapped per page
+    private static final int WINDOW = 64 << 20; // bytes mapped at a time while indexing
+    private static final int HEADERS_LIMIT = 64 << 10; // bytes
+    private static final String WIKI = "/wiki/";
+
+    /**
+     * Place of a page body in the dump.
+     */
+    private static final class Entry {
+        private final long offset;
+        private final int length;
+        private final String charset; // null lets Jsoup detect it
+        private final boolean chunked;
+        private final String encoding; // gzip or deflate, null if none
+
+        private Entry(long offset, int length, String charset, boolean chunked, String encoding) {
+            this.offset = offset;
+            this.length = length;
+            this.charset = charset;
+            this.chunked = chunked;
+            this.encoding = encoding;
+        }
+    }
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer mapped; // the whole file, null if too large
+    private final Map<String, Entry> index = new HashMap<>(); // by title
+
+    // indexing window
+    private ByteBuffer window = null;
+    private long windowStart = 0;
+
+    public DumpFetcher(File dump) throws IOException {
+        this.file = new RandomAccessFile(dump, "r");
+        try {
+            this.channel = file.getChannel();
+            this.size = channel.size();
+            this.mapped = size <= MAX_MAPPED ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+            Scan();
+        }catch(IOException | RuntimeException ex) {
+            file.close();
+            throw ex;
+        }
+        window = null;
+        Log.info(() -> "> Dump: "+index.size()+" pages in "+dump);
+    }
+
+    /**
+     * Gets the page of the url from the dump.
+     *
+     * @throws FetchException 404 if the dump has no such page
+     */
+    @Override
+    public Page Fetch(String url, Map<String, String> headers) throws IOException {
+        Entry entry = index.get(Title(url));
+        if(entry == null)
+            throw new FetchException(url, 404, -1);
+        byte[] body = new byte[entry.length];
+        Map(entry.offset, entry.length).get(body);
+        if(entry.chunked)
+            body = Dechunk(body, url);
+        if(entry.encoding != null)
+            body = Decode(body, entry.encoding);
+        Metrics.count("dump.pages");
+        return new Page(url, Page.OK, body, entry.charset, null, null);
+    }
+
+    /**
+     * Gets the titles of the pages, as the queries of a scrap.
+     *
+     * @return
+     */
+    public List<String> getTitles() {
+        List<String> titles = new ArrayList<>(index.keySet());
+        Collections.sort(titles);
+        return titles;
+    }
+
+    public int getSize() {
+        return index.size();
+    }
+
+    /**
+     * Scraps the section of every page of the dump, using all processors to
+     * read and to parse. Only this scrap reads from the dump; the parser is
+     * not changed, so other callers keep their own fetcher.
+     *
+     * @param parser
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @param listener
+     * @throws InterruptedException
+     */
+    public void Scrap(ParserWithMenu parser, String section, BatchScraper.Listener listener) throws InterruptedException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        try(BatchScraper scraper = new BatchScraper(parser, this, processors, processors)) {
+            scraper.Scrap(getTitles(), section, listener);
+        }
+    }
+
+    /**
+     * Gets the title of a page url: its path after /wiki/, or after the host
+     * for other sources, decoded, with underscores for spaces as in the
+     * Wikipedia urls. Titles keep their slashes (AC/DC, OS/2).
+     *
+     * @param url
+     * @return
+     */
+    static String Title(String url) {
+        int end = url.length();
+        int mark = url.indexOf('#');
+        if(mark >= 0)
+            end = mark;
+        mark = url.indexOf('?');
+        if(mark >= 0 && mark < end)
+            end = mark;
+        int start = url.indexOf(WIKI);
+        if(start >= 0 && start < end) {
+            start += WIKI.length();
+        }else {
+            start = url.indexOf("://");
+            if(start >= 0 && start < end) {
+                start = url.indexOf('/', start+3);
+                start = start >= 0 && start < end ? start+1 : end;
+            }else {
+                start = 0; // a title already
+            }
+        }
+        String title = url.substring(start, end);
+        try {
+            title = URLDecoder.decode(title.replace("+", "%2B"), "UTF-8");
+        }catch(UnsupportedEncodingException | IllegalArgumentException ignored) {
+            // kept as is
+        }
+        return title.replace(' ', '_');
+    }
+
+    /*
+    * ===========================    INDEXING    ===============================
+    */
+
+    /**
+     * Reads the headers of every record, jumping over the contents.
+     */
+    private void Scan() throws IOException {
+        long offset = 0;
+        while(true) {
+            while(offset < size && IsSpace(At(offset)))
+                offset++;
+            if(offset >= size)
+                return;
+
+            int length = HeadersLength(offset);
+            if(length < 0)
+                throw new IOException("Corrupt dump record at "+offset);
+            if(!Line(offset, 5).equals("WARC/"))
+                throw new IOException("Not a WARC-style dump record at "+offset);
+            Map<String, String> warc = Headers(offset, length);
+
+            long content = offset+length;
+            long contentLength;
+            try {
+                contentLength = Long.parseLong(warc.getOrDefault("content-length", "").trim());
+            }catch(NumberFormatException ex) {
+                throw new IOException("Missing Content-Length at "+offset, ex);
+            }
+            if(contentLength < 0 || content+contentLength > size)
+                throw new IOException("Truncated dump record at "+offset);
+
+            String type = warc.getOrDefault("warc-type", "").trim().toLowerCase(Locale.ROOT);
+            String uri = warc.get("warc-target-uri");
+            if(uri != null && (type.equals("response") || type.equals("resource")))
+                Add(Title(uri.trim()), type, content, contentLength, warc);
+            offset = content+contentLength;
+        }
+    }
+
+    private void Add(String title, String type, long content, long length, Map<String, String> warc) throws IOException {
+        long body = content;
+        String contentType = warc.get("content-type");
+        boolean chunked = false;
+        String encoding = null;
+        if(type.equals("response")) {
+            int headers = HeadersLength(content);
+            if(headers < 0 || headers > length)
+                return; // not an HTTP answer
+            String status = Line(content, Math.min(headers, 64)).split("\r?\n", 2)[0];
+            if(!status.matches("HTTP/\\S+ 2\\d\\d.*"))
+                return; // redirects and errors are not pages
+            Map<String, String> http = Headers(content, headers);
+            contentType = http.get("content-type");
+            chunked = http.getOrDefault("transfer-encoding", "").toLowerCase(Locale.ROOT).contains("chunked");
+            encoding = Encoding(http.get("content-encoding"));
+            body = content+headers;
+            length -= headers;
+        }
+        if(length > Integer.MAX_VALUE)
+            throw new IOException("Page too large: "+title);
+        index.put(title, new Entry(body, (int) length, Charset(contentType), chunked, encoding));
+    }
+
+    /*
+    * ===========================    DECODING    ===============================
+    */
+
+    /**
+     * Joins the chunks of a chunked HTTP body; the trailers are dropped.
+     */
+    static byte[] Dechunk(byte[] raw, String url) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+        int at = 0;
+        while(true) {
+            int end = at;
+            while(end < raw.length && raw[end] != '\n')
+                end++;
+            if(end >= raw.length)
+                throw new IOException("Truncated chunked body: "+url);
+            String line = new String(raw, at, end-at, StandardCharsets.ISO_8859_1);
+            int extension = line.indexOf(';');
+            long size;
+            try {
+                size = Long.parseLong((extension < 0 ? line : line.substring(0, extension)).trim(), 16);
+            }catch(NumberFormatException ex) {
+                throw new IOException("Corrupt chunked body: "+url, ex);
+            }
+            at = end+1;
+            if(size == 0)
+                return out.toByteArray();
+            if(size < 0 || size > raw.length-at)
+                throw new IOException("Truncated chunked body: "+url);
+            out.write(raw, at, (int) size);
+            at += (int) size;
+            if(at < raw.length && raw[at] == '\r')
+                at++;
+            if(at < raw.length && raw[at] == '\n')
+                at++;
+        }
+    }
+
+    /**
+     * Inflates a gzip or deflate body.
+     */
+    static byte[] Decode(byte[] body, String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length*4);
+        try(InputStream in = encoding.equals("gzip")
+                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new InflaterInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[8192];
+            for(int read; (read = in.read(buffer)) != -1; )
+                out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Gets the content encoding that is undone, like HttpFetcher does.
+     */
+    private static String Encoding(String contentEncoding) {
+        if(contentEncoding == null)
+            return null;
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        switch(encoding) {
+            case "gzip": case "x-gzip": return "gzip";
+            case "deflate": return "deflate";
+            default: return null;
+        }
+    }
+
+    /**
+     * Gets the length of the header block, up to and including its blank line.
+     *
+     * @return -1 if there is no blank line within HEADERS_LIMIT
+     */
+    private int HeadersLength(long offset) {
+        long end = Math.min(size, offset+HEADERS_LIMIT);
+        for(long at = offset; at < end; at++) {
+            if(At(at) != '\n')
+                continue;
+            if(at+1 < size && At(at+1) == '\n')
+                return (int) (at+2-offset);
+            if(at+2 < size && At(at+1) == '\r' && At(at+2) == '\n')
+                return (int) (at+3-offset);
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the header lines, by lower case name; the first line is skipped.
+     */
+    private Map<String, String> Headers(long offset, int length) {
+        Map<String, String> headers = new HashMap<>();
+        String[] lines = Line(offset, length).split("\r?\n");
+        for(int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if(colon > 0)
+                headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon+1).trim());
+        }
+        return headers;
+    }
+
+    private String Line(long offset, int length) {
+        byte[] bytes = new byte[(int) Math.min(length, size-offset)];
+        for(int i = 0; i < bytes.length; i++)
+            bytes[i] = At(offset+i);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String Charset(String contentType) {
+        if(contentType == null)
+            return null;
+        for(String part : contentType.split(";")) {
+            String parameter = part.trim();
+            if(parameter.toLowerCase(Locale.ROOT).startsWith("charset="))
+                return parameter.substring(8).replace("\"", "").trim();
+        }
+        return null;
+    }
+
+    private static boolean IsSpace(byte b) {
+        return b == '\r' || b == '\n' || b == ' ' || b == '\t';
+    }
+
+    /**
+     * Gets a byte while indexing, moving the mapped window when needed.
+     */
+    private byte At(long offset) {
+        if(mapped != null)
+            return mapped.get((int) offset);
+        if(window == null || offset < windowStart || offset >= windowStart+window.limit()) {
+            try {
+                windowStart = offset;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size-offset));
+            }catch(IOException ex) {
+                throw new IllegalStateException("Could not map the dump at "+offset, ex);
+            }
+        }
+        return window.get((int) (offset-windowStart));
+    }
+
+    /**
+     * Gets a view of the bytes; each caller gets its own positions.
+     */
+    private ByteBuffer Map(long offset, int length) throws IOException {
+        if(mapped != null) {
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) offset);
+            view.limit((int) offset+length);
+            return view;
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.scrapper;
+
+import java.io.IOException;
+
+/**
+* Name: FetchException
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Error status answered by the webpage, or a page that could
+* not be taken whole.
+*/
+public final class FetchException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String url;
+    private final int status;
+    private final long retryAfter; // milliseconds, -1 when not informed
+
+    public FetchException(String url, int status, long retryAfter) {
+        this(url, status, retryAfter, "HTTP error "+status+" fetching "+url);
+    }
+
+    public FetchException(String url, int status, long retryAfter, String message) {
+        super(message);
+        this.url = url;
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
+}
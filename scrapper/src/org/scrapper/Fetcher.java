@@ -0,0 +1,48 @@
+package org.scrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+* Name: Fetcher
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Fetcher's interface. Gets the raw page behind Builder.connect.
+*/
+public interface Fetcher {
+
+    /**
+     * Gets the page.
+     *
+     * @param url
+     * @param headers extra request headers, like If-None-Match
+     * @return
+     * @throws IOException
+     */
+    public Page Fetch(String url, Map<String, String> headers) throws IOException;
+
+    public default Page Fetch(String url) throws IOException {
+        return Fetch(url, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Opens the page as text, to be read while it arrives. By default the
+     * whole page is fetched first; fetchers that can stream override it.
+     *
+     * @param url
+     * @return the caller must close it, even if it is not fully read
+     * @throws IOException
+     */
+    public default Reader Stream(String url) throws IOException {
+        Page page = Fetch(url);
+        Charset charset = page.getCharset() != null && Charset.isSupported(page.getCharset())
+                ? Charset.forName(page.getCharset()) : StandardCharsets.UTF_8;
+        return new InputStreamReader(new ByteArrayInputStream(page.getBody()), charset);
+    }
+}
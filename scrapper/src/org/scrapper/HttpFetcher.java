@@ -0,0 +1,209 @@
+package org.scrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+* Name: HttpFetcher
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Default fetcher. Uses the keep-alive connection pool of the
+* JDK (sized by the http.maxConnections property), explicit timeouts,
+* compressed transfers and a cap on the body size. Redirects within the
+* protocol are followed by the JDK; the others, like http to https, are
+* errors, never pages.
+*/
+public final class HttpFetcher implements Fetcher {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000; // milliseconds
+    public static final int DEFAULT_READ_TIMEOUT = 30000; // milliseconds
+    public static final int DEFAULT_MAX_BODY_SIZE = 8*1024*1024; // bytes, 0 is unlimited
+
+    private static final String USER_AGENT = "JScrapper/"+Parser.VERSION;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxBodySize;
+
+    public HttpFetcher() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    public HttpFetcher(int connectTimeout, int readTimeout, int maxBodySize) {
+        if(connectTimeout < 0 || readTimeout < 0 || maxBodySize < 0)
+            throw new IllegalArgumentException("Timeouts and body size must not be negative.");
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public Page Fetch(String url, Map<String, String> headers) throws IOException {
+        HttpURLConnection connection = Connect(url, headers);
+        int status = connection.getResponseCode();
+        String etag = connection.getHeaderField("ETag");
+        String lastModified = connection.getHeaderField("Last-Modified");
+
+        if(status == Page.NOT_MODIFIED) {
+            Drain(connection.getInputStream());
+            return new Page(url, status, null, null, etag, lastModified);
+        }
+
+        if(status >= 300)
+            throw Error(url, status, connection);
+
+        long length = connection.getContentLengthLong();
+        if(maxBodySize > 0 && length > maxBodySize) {
+            connection.disconnect();
+            throw new FetchException(url, status, -1, "Body of "+length+" bytes over "+maxBodySize+" fetching "+url);
+        }
+
+        byte[] body;
+        try(InputStream in = Decode(connection.getInputStream(), connection.getContentEncoding())) {
+            body = Read(url, status, in, connection);
+        }
+
+        return new Page(connection.getURL().toString(), status, body,
+                Charset(connection.getContentType()), etag, lastModified);
+    }
+
+    /**
+     * Opens the body straight from the connection, with no copy of the page.
+     * Closing it early drops the connection instead of reading the rest.
+     */
+    @Override
+    public Reader Stream(String url) throws IOException {
+        HttpURLConnection connection = Connect(url, Collections.<String, String>emptyMap());
+        int status = connection.getResponseCode();
+        if(status >= 300)
+            throw Error(url, status, connection);
+        String charset = Charset(connection.getContentType());
+        InputStream in = Decode(connection.getInputStream(), connection.getContentEncoding());
+        return new InputStreamReader(in, charset != null && Charset.isSupported(charset)
+                ? Charset.forName(charset) : StandardCharsets.UTF_8) {
+            @Override
+            public void close() throws IOException {
+                connection.disconnect();
+                super.close();
+            }
+        };
+    }
+
+    private HttpURLConnection Connect(String url, Map<String, String> headers) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setInstanceFollowRedirects(true);
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+        for(Map.Entry<String, String> header : headers.entrySet())
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        return connection;
+    }
+
+    /**
+     * Gets the error of a status that is not a page, leaving the connection
+     * ready for the pool.
+     */
+    private static FetchException Error(String url, int status, HttpURLConnection connection) throws IOException {
+        if(status < 400) {
+            String location = connection.getHeaderField("Location");
+            Drain(connection.getInputStream());
+            return new FetchException(url, status, -1, "Redirect "+status+" to "+location+" not followed fetching "+url);
+        }
+        Drain(connection.getErrorStream());
+        return new FetchException(url, status, RetryAfter(connection.getHeaderField("Retry-After")));
+    }
+
+    /**
+     * Reads the body up to the size cap. A larger body is an error, never a
+     * truncated page; the connection is dropped, as it can not go back to
+     * the pool.
+     *
+     * @throws FetchException if the body is over the cap
+     */
+    private byte[] Read(String url, int status, InputStream in, HttpURLConnection connection) throws IOException {
+        // sized by the Content-Length, but never over the cap: the header is not trusted
+        long length = connection.getContentLengthLong();
+        int limit = maxBodySize > 0 ? maxBodySize : DEFAULT_MAX_BODY_SIZE;
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(Math.max(length, 32*1024), limit));
+        byte[] buffer = new byte[32*1024];
+        int read;
+        while((read = in.read(buffer)) != -1) {
+            if(maxBodySize > 0 && out.size()+read > maxBodySize) {
+                connection.disconnect();
+                throw new FetchException(url, status, -1, "Body over "+maxBodySize+" bytes fetching "+url);
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static InputStream Decode(InputStream in, String encoding) throws IOException {
+        if(encoding == null)
+            return in;
+        switch(encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip": return new GZIPInputStream(in);
+            case "deflate": return new InflaterInputStream(in);
+            default: return in;
+        }
+    }
+
+    /**
+     * Reads what is left, so the connection goes back to the keep-alive pool.
+     */
+    private static void Drain(InputStream in) {
+        if(in == null)
+            return;
+        try(InputStream stream = in) {
+            byte[] buffer = new byte[4096];
+            while(stream.read(buffer) != -1) { }
+        }catch(IOException ignored) { }
+    }
+
+    private static String Charset(String contentType) {
+        if(contentType == null)
+            return null;
+        for(String part : contentType.split(";")) {
+            part = part.trim();
+            if(part.toLowerCase(Locale.ROOT).startsWith("charset="))
+                return part.substring(8).replace("\"", "").trim();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the Retry-After header, in seconds or as a date.
+     *
+     * @param value
+     * @return milliseconds, -1 when not informed
+     */
+    static long RetryAfter(String value) {
+        if(value == null)
+            return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim())*1000);
+        }catch(NumberFormatException ex) {
+            try {
+                SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+                return Math.max(0, format.parse(value.trim()).getTime()-System.currentTimeMillis());
+            }catch(java.text.ParseException ev) {
+                return -1;
+            }
+        }
+    }
+
+}
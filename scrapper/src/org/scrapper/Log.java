@@ -0,0 +1,221 @@
+package org.scrapper;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+* Name: Log
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Logging facade behind Builder.print. Messages below the level
+* are not even built, as they are given by suppliers; the others are handed
+* to an asynchronous appender, so the scrap threads never wait on the console.
+* The level comes from the scrapper.log.level property (INFO by default).
+*/
+public final class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    /**
+     * Writes the messages somewhere.
+     */
+    public interface Appender {
+        public void Append(Level level, String message);
+    }
+
+    private static volatile Level level = Level(System.getProperty("scrapper.log.level"));
+    private static volatile Appender appender = new AsyncAppender(new ConsoleAppender(), AsyncAppender.DEFAULT_CAPACITY);
+
+    private Log() { }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level level) {
+        if(level == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        Log.level = level;
+    }
+
+    public static Appender getAppender() {
+        return appender;
+    }
+
+    public static void setAppender(Appender appender) {
+        if(appender == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        Log.appender = appender;
+    }
+
+    public static boolean isEnabled(Level wanted) {
+        return wanted != Level.OFF && wanted.compareTo(level) >= 0;
+    }
+
+    public static void debug(Supplier<String> message) {
+        write(Level.DEBUG, message);
+    }
+
+    public static void info(Supplier<String> message) {
+        write(Level.INFO, message);
+    }
+
+    public static void warn(Supplier<String> message) {
+        write(Level.WARN, message);
+    }
+
+    public static void error(Supplier<String> message) {
+        write(Level.ERROR, message);
+    }
+
+    /**
+     * Writes the message if the level is enabled; the supplier runs only then.
+     *
+     * @param wanted
+     * @param message
+     */
+    public static void write(Level wanted, Supplier<String> message) {
+        if(isEnabled(wanted))
+            appender.Append(wanted, String.valueOf(message.get()));
+    }
+
+    public static void write(Level wanted, String message) {
+        if(isEnabled(wanted))
+            appender.Append(wanted, String.valueOf(message));
+    }
+
+    /**
+     * Waits until the messages written so far are out, if the appender is asynchronous.
+     */
+    public static void flush() {
+        Appender current = appender;
+        if(current instanceof AsyncAppender)
+            ((AsyncAppender) current).Flush();
+    }
+
+    private static Level Level(String name) {
+        try {
+            return name != null ? Level.valueOf(name.trim().toUpperCase(Locale.ROOT)) : Level.INFO;
+        }catch(IllegalArgumentException ex) {
+            return Level.INFO;
+        }
+    }
+
+    /*
+    * ===========================    APPENDERS    ==============================
+    */
+
+    /**
+     * Writes in System.out, with the colors of Builder.print: the status
+     * lines ("> ") in blue, the errors in red followed by a blank line.
+     */
+    public static final class ConsoleAppender implements Appender {
+
+        private final PrintStream stream; // null follows System.out
+
+        public ConsoleAppender() {
+            this(null);
+        }
+
+        public ConsoleAppender(PrintStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void Append(Level level, String message) {
+            PrintStream out = stream != null ? stream : System.out; // System.out may be replaced, like by the GUI
+            if(level == Level.ERROR)
+                out.println(Builder.ANSI_RED+message.replace("\n", "")+"\n");
+            else if(level == Level.WARN)
+                out.println(Builder.ANSI_YELLOW+message.replace("\n", "")+"\n");
+            else if(message.startsWith("> "))
+                out.println(Builder.ANSI_BLUE+message.replace("\n", ""));
+            else
+                out.println(Builder.ANSI_RESET+message);
+        }
+    }
+
+    /**
+     * Hands the messages to another appender on its own thread. The queue is
+     * bounded; when it is full the message is dropped and counted, instead of
+     * making the caller wait.
+     */
+    public static final class AsyncAppender implements Appender {
+
+        public static final int DEFAULT_CAPACITY = 4096; // messages
+
+        private final Appender appender;
+        private final BlockingQueue<Object> queue; // Object[]{level, message} or a flush latch
+        private final AtomicLong dropped = new AtomicLong();
+
+        public AsyncAppender(Appender appender, int capacity) {
+            if(appender == null)
+                throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+            this.appender = appender;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            Thread thread = new Thread(this::Run, "scrapper-log");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::Flush, "scrapper-log-flush"));
+        }
+
+        @Override
+        public void Append(Level level, String message) {
+            if(!queue.offer(new Object[]{level, message}))
+                dropped.incrementAndGet();
+        }
+
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * Waits, for a few seconds at most, until the queued messages are written.
+         */
+        public void Flush() {
+            CountDownLatch latch = new CountDownLatch(1);
+            try {
+                if(queue.offer(latch, 1, TimeUnit.SECONDS))
+                    latch.await(5, TimeUnit.SECONDS);
+            }catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void Run() {
+            long reported = 0;
+            while(true) {
+                Object item;
+                try {
+                    item = queue.take();
+                }catch(InterruptedException ex) {
+                    return;
+                }
+                if(item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                    continue;
+                }
+                long lost = dropped.get();
+                if(lost > reported) {
+                    Write(Level.WARN, (lost-reported)+" log messages dropped.");
+                    reported = lost;
+                }
+                Object[] entry = (Object[]) item;
+                Write((Level) entry[0], (String) entry[1]);
+            }
+        }
+
+        private void Write(Level level, String message) {
+            try {
+                appender.Append(level, message);
+            }catch(RuntimeException ignored) { }
+        }
+    }
+
+}
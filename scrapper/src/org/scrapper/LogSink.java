@@ -0,0 +1,117 @@
+package org.scrapper;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+* Name: LogSink
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Output stream that keeps the last lines written to it, like
+* the status printed by Builder.print. The bytes are decoded as UTF-8, the
+* ANSI color codes are dropped and the lines go into a bounded ring buffer,
+* read in batches by Drain. Writing never waits for the reader.
+*/
+public final class LogSink extends OutputStream {
+
+    private static final int MAX_LINE = 4096; // chars, the rest of a longer line is dropped
+    private static final char ESCAPE = 27;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(1024);
+    private final CharBuffer chars = CharBuffer.allocate(1024);
+    private final StringBuilder line = new StringBuilder();
+    private int escape = 0; // 1 after ESC, 2 inside ESC [ ... until the final char
+
+    private final String[] lines; // ring buffer
+    private long written = 0; // lines ever added
+    private long read = 0; // lines ever drained or dropped
+
+    public LogSink(int capacity) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive.");
+        this.lines = new String[capacity];
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        bytes.put((byte) b);
+        Decode();
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        while(len > 0) {
+            int n = Math.min(len, bytes.remaining());
+            bytes.put(b, off, n);
+            off += n;
+            len -= n;
+            Decode();
+        }
+    }
+
+    private void Decode() {
+        bytes.flip();
+        while(true) {
+            boolean overflow = decoder.decode(bytes, chars, false).isOverflow();
+            chars.flip();
+            while(chars.hasRemaining())
+                Append(chars.get());
+            chars.clear();
+            if(!overflow)
+                break;
+        }
+        bytes.compact(); // keeps an incomplete char for the next write
+    }
+
+    private void Append(char c) {
+        if(escape == 1) {
+            escape = c == '[' ? 2 : 0;
+            return;
+        }
+        if(escape == 2) {
+            if(c >= '@' && c <= '~')
+                escape = 0;
+            return;
+        }
+        if(c == ESCAPE) {
+            escape = 1;
+        }else if(c == '\n') {
+            Add(line.toString());
+            line.setLength(0);
+        }else if(c != '\r' && line.length() < MAX_LINE) {
+            line.append(c);
+        }
+    }
+
+    private void Add(String text) {
+        lines[(int) (written % lines.length)] = text;
+        written++;
+    }
+
+    /**
+     * Moves the lines written since the last call into the list.
+     *
+     * @param into
+     * @return lines lost because the buffer was full
+     */
+    public synchronized long Drain(List<String> into) {
+        long dropped = Math.max(0, written-lines.length-read);
+        read += dropped;
+        while(read < written) {
+            int index = (int) (read % lines.length);
+            into.add(lines[index]);
+            lines[index] = null;
+            read++;
+        }
+        return dropped;
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.scrapper;
 
+import java.util.Arrays;
 import javax.swing.SwingUtilities;
 
 /**
@@ -11,6 +12,15 @@ import javax.swing.SwingUtilities;
 
 public class Main{
     public static void main(String[] args) {
+        // with arguments it is the service or a batch job, run without loading the GUI
+        if(args.length > 0 && args[0].equals("--serve")) {
+            ScrapServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0) {
+            BatchRunner.main(args);
+            return;
+        }
         SwingUtilities.invokeLater(
             () -> new ParserWithMenuGUI().setVisible(true) 
         );
@@ -0,0 +1,295 @@
+package org.scrapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+* Name: Metrics
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Counters and histograms of the scrap stages: fetch, DOM parse,
+* index, verify and extraction, with the bytes read, the DOM size, the method
+* that gave the content and the cache hits and misses. The events go to a
+* pluggable registry; the default one keeps them in memory, is read by
+* Snapshot and can be bound to JMX. Timers are histograms of nanoseconds,
+* reported in milliseconds.
+*/
+public final class Metrics {
+
+    /**
+     * Receives the events. Another implementation may forward them to an
+     * external metrics library.
+     */
+    public interface Registry {
+        public void Count(String name, long amount);
+        public void Record(String name, long value);
+        public void Time(String name, long nanos);
+        public Map<String, Number> Snapshot();
+    }
+
+    /**
+     * Registry that drops everything.
+     */
+    public static final Registry NONE = new Registry() {
+        @Override
+        public void Count(String name, long amount) { }
+
+        @Override
+        public void Record(String name, long value) { }
+
+        @Override
+        public void Time(String name, long nanos) { }
+
+        @Override
+        public Map<String, Number> Snapshot() {
+            return Collections.emptyMap();
+        }
+    };
+
+    public static final String JMX_NAME = "org.scrapper:type=Metrics";
+
+    private static volatile Registry registry = "false".equals(System.getProperty("scrapper.metrics")) ? NONE : new Local();
+
+    private Metrics() { }
+
+    public static Registry getRegistry() {
+        return registry;
+    }
+
+    public static void setRegistry(Registry registry) {
+        if(registry == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        Metrics.registry = registry;
+    }
+
+    /**
+     * Tells whether the events are kept; costly measures, like counting the
+     * DOM nodes, are skipped when they are not.
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return registry != NONE;
+    }
+
+    public static void count(String name) {
+        registry.Count(name, 1);
+    }
+
+    public static void count(String name, long amount) {
+        registry.Count(name, amount);
+    }
+
+    public static void record(String name, long value) {
+        registry.Record(name, value);
+    }
+
+    /**
+     * Records the time since the start.
+     *
+     * @param name
+     * @param started System.nanoTime() at the start
+     * @return nanoseconds elapsed
+     */
+    public static long time(String name, long started) {
+        long elapsed = System.nanoTime()-started;
+        registry.Time(name, elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Gets the current values, sorted by name.
+     *
+     * @return
+     */
+    public static Map<String, Number> snapshot() {
+        return registry.Snapshot();
+    }
+
+    /**
+     * Binds the metrics to the platform MBean server, as the attributes of
+     * JMX_NAME; they are read from the registry in use at each access.
+     *
+     * @throws JMException
+     */
+    public static void registerJmx() throws JMException {
+        registerJmx(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public static void registerJmx(MBeanServer server) throws JMException {
+        ObjectName name = new ObjectName(JMX_NAME);
+        if(!server.isRegistered(name))
+            server.registerMBean(new Bean(), name);
+    }
+
+    /*
+    * ===========================    REGISTRY    ===============================
+    */
+
+    /**
+     * In-memory registry. Updates are lock free; a snapshot may mix values
+     * taken a few events apart.
+     */
+    public static final class Local implements Registry {
+
+        private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+        @Override
+        public void Count(String name, long amount) {
+            counters.computeIfAbsent(name, (String key) -> new LongAdder()).add(amount);
+        }
+
+        @Override
+        public void Record(String name, long value) {
+            histograms.computeIfAbsent(name, (String key) -> new Histogram(1)).Record(value);
+        }
+
+        @Override
+        public void Time(String name, long nanos) {
+            histograms.computeIfAbsent(name+".ms", (String key) -> new Histogram(1e6)).Record(nanos);
+        }
+
+        @Override
+        public Map<String, Number> Snapshot() {
+            Map<String, Number> values = new TreeMap<>();
+            for(Map.Entry<String, LongAdder> counter : counters.entrySet())
+                values.put(counter.getKey(), counter.getValue().sum());
+            for(Map.Entry<String, Histogram> histogram : histograms.entrySet())
+                histogram.getValue().Snapshot(histogram.getKey(), values);
+            return Collections.unmodifiableMap(values);
+        }
+
+        public void Clear() {
+            counters.clear();
+            histograms.clear();
+        }
+    }
+
+    /**
+     * Histogram with a bucket per power of two; the percentiles are the upper
+     * bound of their bucket, so they are at most twice the real value.
+     */
+    static final class Histogram {
+
+        private static final int BUCKETS = 64;
+
+        private final double scale; // divides the values in the snapshot
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        Histogram(double scale) {
+            this.scale = scale;
+        }
+
+        void Record(long value) {
+            if(value < 0)
+                value = 0;
+            buckets.incrementAndGet(BUCKETS-Long.numberOfLeadingZeros(value)); // 0 for 0, else bit length
+            count.increment();
+            sum.add(value);
+            long seen;
+            while(value > (seen = max.get()) && !max.compareAndSet(seen, value)) { }
+        }
+
+        void Snapshot(String name, Map<String, Number> into) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for(int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            into.put(name+".count", count.sum());
+            if(total == 0)
+                return;
+            into.put(name+".mean", sum.sum()/scale/Math.max(1, count.sum()));
+            into.put(name+".max", max.get()/scale);
+            into.put(name+".p50", Percentile(counts, total, 0.50)/scale);
+            into.put(name+".p90", Percentile(counts, total, 0.90)/scale);
+            into.put(name+".p99", Percentile(counts, total, 0.99)/scale);
+        }
+
+        private double Percentile(long[] counts, long total, double rank) {
+            long wanted = (long) Math.ceil(total*rank);
+            long seen = 0;
+            for(int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if(seen >= wanted)
+                    return Math.min(i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i)-1, max.get());
+            }
+            return max.get();
+        }
+    }
+
+    /*
+    * =============================    JMX    ==================================
+    */
+
+    /**
+     * Read-only MBean whose attributes are the entries of the snapshot.
+     */
+    private static final class Bean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Number value = snapshot().get(attribute);
+            if(value == null)
+                throw new AttributeNotFoundException(attribute);
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Number> values = snapshot();
+            AttributeList list = new AttributeList();
+            for(String attribute : attributes) {
+                if(values.containsKey(attribute))
+                    list.add(new Attribute(attribute, values.get(attribute)));
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException("Metrics are read only.");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(action);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Number> values = snapshot();
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+            int i = 0;
+            for(Map.Entry<String, Number> value : values.entrySet())
+                attributes[i++] = new MBeanAttributeInfo(value.getKey(), value.getValue().getClass().getName(), value.getKey(), true, false, false);
+            return new MBeanInfo(Metrics.class.getName(), "Scrap stages", attributes, null, null, null);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.scrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+/**
+* Name: Page
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Raw page got by a Fetcher.
+*/
+public final class Page {
+
+    public static final int OK = 200;
+    public static final int NOT_MODIFIED = 304;
+
+    private final String url;
+    private final int status;
+    private final byte[] body;
+    private final String charset; // null lets Jsoup detect it
+    private final String etag;
+    private final String lastModified;
+
+    public Page(String url, int status, byte[] body, String charset, String etag, String lastModified) {
+        this.url = url;
+        this.status = status;
+        this.body = body != null ? body : new byte[0];
+        this.charset = charset;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the body; the array is shared, it must not be changed.
+     *
+     * @return
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Parses the body straight from the bytes.
+     *
+     * @return
+     * @throws IOException
+     */
+    public Document toDocument() throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(body), charset, url);
+    }
+
+}
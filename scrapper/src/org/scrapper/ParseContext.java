@@ -0,0 +1,460 @@
+package org.scrapper;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.safety.Whitelist;
+import org.jsoup.select.Elements;
+
+import static org.scrapper.Builder.*;
+import static org.scrapper.ParserWithMenu.*;
+
+/**
+* Name: ParseContext
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Per-request state of the scrap process. Each query gets its
+* own context, so the same parser can serve many queries at the same time.
+*/
+public final class ParseContext {
+
+    /*
+    * =========================    VARIABLES    ================================
+    */
+
+    private static final Selectors.Query PARAGRAPHS = Selectors.Query("p");
+
+    private final ParserWithMenu parser;
+    private final String query;
+    private final Document doc; // the only DOM built for this request
+
+    private String aim = null, nextOption = null, content = null;
+    private String pageText = null; // text of the page, built once and only if needed
+    private String[] allOptions = null;
+    private SectionIndex index = null; // headings of the page, built once and only if needed
+    private SectionIndex.Section selected = null;
+    private StringBuilder trace = null; // stage times, kept only for the debug log
+
+    /*
+    * =========================    CONSTRUCTORS    =============================
+    */
+
+    ParseContext(ParserWithMenu parser, String query, Document doc) {
+        if(parser == null || doc == null)
+            throw new NullPointerException(NULL_ARGS_ERROR);
+        this.parser = parser;
+        this.query = query;
+        this.doc = doc;
+    }
+
+    /*
+    * =====================    GETTERS & SETTERS    ============================
+    */
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Document getDocument() {
+        return doc;
+    }
+
+    public String getAim() {
+        return aim;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Gets the time of each stage run by this context, like "index 1.2ms";
+     * it is only kept when the DEBUG level is enabled.
+     *
+     * @return empty if not kept
+     */
+    public String getTrace() {
+        return trace != null ? trace.toString() : "";
+    }
+
+    /*
+    * ===========================    METHODS    ================================
+    */
+
+    /**
+     * Gets options in the page; they are computed only once per context.
+     *
+     * @return
+     */
+    public String[] Options() {
+        if(allOptions == null) {
+            long started = System.nanoTime();
+            allOptions = ParserWithMenu.Options(Index());
+            Trace("options", started);
+        }
+        return allOptions.clone();
+    }
+
+    /**
+     * Gets the index of the sections; it is built only once per context.
+     *
+     * @return
+     */
+    public SectionIndex Index() {
+        if(index == null) {
+            long started = System.nanoTime();
+            index = parser.Index(doc);
+            Trace("index", started);
+        }
+        return index;
+    }
+
+    /**
+     * Gets the section titles of the page, as data for non-interactive callers.
+     *
+     * @return
+     */
+    public List<String> Sections() {
+        return Index().Titles();
+    }
+
+    /**
+     * Parser core method; asks the user which option should be scrapped.
+     *
+     * @return
+     * @throws NullPointerException
+     * @throws Exception
+     */
+    public String Core() throws NullPointerException, Exception{
+        String selected;
+
+        // Options selection dialog
+        try {
+            selected = get("Options:", Options());
+        }catch (NullPointerException ex) {
+            throw new NullPointerException("Core Error\n"+NULL_ARGS_ERROR);
+        }
+
+        return Core(selected);
+    }
+
+    /**
+     * Parser core method.
+     *
+     * @param section option to scrap, with or without the " - " mark
+     * @return
+     * @throws NullPointerException
+     * @throws Exception
+     */
+    public String Core(String section) throws NullPointerException, Exception{
+
+        // Finds the option and the next one, used as limit
+        try {
+            String wanted = Unmark(section).trim();
+            if(wanted.equalsIgnoreCase(SectionParser.ALL_SECTIONS))
+                wanted = ALL_OPTIONS_MESSAGE;
+
+            selected = Index().Get(wanted);
+            SectionIndex.Section next = selected != null ? Index().Next(selected) : null;
+            aim = selected != null ? selected.getTitle() : wanted;
+            nextOption = next != null ? next.getTitle() : null;
+            if (parser.isStatus()) Log.info(() -> "> Searching:"+aim);
+
+        }catch (NullPointerException ex) {
+            throw new NullPointerException("Core Error\n"+NULL_ARGS_ERROR);
+        }
+
+        // ParserWithMenu only if verification returns true
+        long verifying = System.nanoTime();
+        boolean verified = Verify();
+        Trace("verify", verifying);
+        if(verified) {
+
+            if(parser.isStatus()) Log.info(() -> "> Verified.");
+            if(parser.isStatus()) Log.info(() -> "> Showing options. ");
+
+            if(parser.isDisplay()) {
+                Log.info(() -> ""); // new line
+                for(String opcao : Options()) {
+                    Log.info(() -> opcao);
+                }
+            }
+
+           /**
+            * Scrapping core process.
+            */
+
+           if(!aim.equals(ALL_OPTIONS_MESSAGE)) {
+
+                if(selected != null) {
+                    /*
+                    * Principal processo de raspagem. Usa o titulo escolhido para buscar.
+                    *
+                    * Parte do titulo no DOM e percorre os elementos seguintes até
+                    * o próximo titulo de mesmo nível ou superior, sem gerar HTML.
+                    */
+
+                    long started = System.nanoTime();
+                    content = MainParseMethod(selected);
+                    Trace("extract.main", started);
+                }else{
+                    /*
+                    * Processo de raspagem alternativo. Usa parte do texto para buscar.
+                    *
+                    * Primeiro é cortado da busca até o final. Depois pegamos esse corte
+                    * e limitamos até a próxima tag. Então converte-se novamente com o Jsoup
+                    * para poder usar o método text().
+                    */
+
+                    // Gets p tags
+                    Elements tags = doc.body().getElementsByTag("p");
+
+                    long started = System.nanoTime();
+                    content = AlternativeParseMethod(tags.toString());
+                    Trace("extract.alternative", started);
+                }
+
+            }else{
+               long started = System.nanoTime();
+               content = LastParseMethod();
+               Trace("extract.last", started);
+            }
+
+            if(content != null) {
+                Metrics.count("extract.method."+MethodName(selected));
+                return content;
+            }
+        }
+
+        throw new Exception(PARSING_ERROR_MESSAGE);
+
+    }
+
+    /**
+     * Mainly parse method; walks the DOM from the title of the section.
+     *
+     * @param section
+     * @return
+     */
+    public String MainParseMethod(SectionIndex.Section section) {
+        if(parser.isStatus()) {
+            Log.info(() -> "> Main method.");
+        }
+        if(parser.isDisplay()) Log.info(() -> parser.Title(doc)+"\n");
+
+        content = parser.RemoveUnnecessaryThings(SectionExtractor.Extract(section, parser::IsUnnecessary));
+
+        if(parser.isDisplay()) Log.info(() -> content);
+
+        return content;
+    }
+
+    /**
+     * Former main parse method; cuts the section out of the serialized content.
+     *
+     * @param code
+     * @return
+     * @deprecated no parse path calls it; use MainParseMethod(SectionIndex.Section)
+     */
+    @Deprecated
+    public String MainParseMethod(String code) {
+        if(parser.isStatus()) {
+            Log.info(() -> "> Main method.");
+        }
+        if(parser.isDisplay()) Log.info(() -> parser.Title(doc)+"\n");
+
+        Whitelist wl = new Whitelist();
+        wl.addTags(parser.getTag(), "p");
+
+        // Clean using the allowed tags of the whitelist
+        String cleanCode = Jsoup.clean(code, wl);
+
+        cleanCode = parser.RemoveUnnecessaryThings(cleanCode);
+
+        String ocurrency = "<"+parser.getTag()+">"+aim+"</"+parser.getTag()+">";
+        String limit = "<"+parser.getTag()+">"+nextOption+"</"+parser.getTag()+">";
+
+        cleanCode = cleanCode.substring(cleanCode.lastIndexOf(ocurrency)+ocurrency.length());
+
+        if(cleanCode.contains(limit))
+            cleanCode = cleanCode.substring(0, cleanCode.indexOf(limit));
+
+        content = clear(cleanCode);
+
+        if(parser.isDisplay()) Log.info(() -> content);
+
+        return content;
+    }
+
+    /**
+     * Alternatively parse method, used if main fails; less accurate.
+     *
+     * @param code
+     * @return
+     */
+    public String AlternativeParseMethod(String code) {
+        try {
+            if(code.contains(aim) && code.contains("</p>")) {
+                if(parser.isStatus()) {
+                    Log.info(() -> "> Alternative method.");
+                }
+                String minified = code.substring(code.indexOf(aim), code.length());
+                code = minified.substring(0, minified.indexOf("</p>"));
+                content = parser.RemoveUnnecessaryThings(clear(code)); // Clear tags html off the code.
+
+                if(parser.isDisplay()) Log.info(() -> parser.Title(doc)+"\n");
+                if(parser.isDisplay()) Log.info(() -> content+"\n");
+            }
+        }catch(Exception ev) {
+            Log.error(() -> ev.getMessage()+"\n");
+            return PARSING_ERROR_MESSAGE;
+        }
+
+        return content;
+    }
+
+    /**
+     * Used when the user selects the first option; brings up all content of the page.
+     *
+     * @return
+     */
+    public String LastParseMethod() {
+        if(parser.isStatus()) {
+            Log.info(() -> "> Last method.");
+        }
+        if(parser.isDisplay()) Log.info(() -> parser.Title(doc)+"\n");
+
+        content = PARAGRAPHS.Select(parser.getContentQuery().Select(doc)).toString().replace("\n", "ʘ");
+        content = parser.RemoveUnnecessaryThings(clear(content).replace("ʘ", "\n"));
+
+        if(parser.isDisplay()) Log.info(() -> content);
+
+        return content;
+    }
+
+    /**
+     * Brings up all content of the page one paragraph at a time, each one
+     * pushed as soon as it is clean; no text of the whole page is built.
+     *
+     * @param paragraphs receives the clean text of each paragraph
+     * @return number of paragraphs pushed
+     */
+    public int LastParseMethod(Consumer<CharSequence> paragraphs) {
+        if(parser.isStatus()) {
+            Log.info(() -> "> Last method (streaming).");
+        }
+        int count = 0;
+        for(Element paragraph : PARAGRAPHS.Select(parser.getContentQuery().Select(doc))) {
+            String text = parser.RemoveUnnecessaryThings(new TextNormalizer().Append(paragraph, parser::IsUnnecessary).toString());
+            if(!text.isEmpty()) {
+                paragraphs.accept(text);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Verify the code.
+     *
+     * @return
+     * @throws java.lang.Exception
+     */
+    public boolean Verify() throws Exception, NullPointerException{
+
+        if(aim == null) {
+            throw new NullPointerException("Verify error\n"+NULL_ARGS_ERROR);
+        }
+
+        aim = Unmark(aim);
+
+        if(parser.getSource() == null) {
+            throw new NullPointerException("Verify error\n"+NULL_ARGS_ERROR);
+        }
+
+        if(!aim.equals(ALL_OPTIONS_MESSAGE) && !Contains(aim)) {
+            throw new Exception("Verify error\n"+NOT_FOUND_MESSAGE);
+        }
+
+        return true;
+    }
+
+    /**
+     * Verify if the page has the text, looking first in the options
+     * and only then in the page text (computed once per page).
+     *
+     * @param text
+     * @return
+     */
+    private boolean Contains(String text) {
+        if(Index().Get(text) != null)
+            return true;
+        if(pageText == null)
+            pageText = doc.text();
+        return pageText.contains(text);
+    }
+
+    /**
+     * Gets the name of the method used for the section, as in the metrics.
+     */
+    private String MethodName(SectionIndex.Section section) {
+        if(aim.equals(ALL_OPTIONS_MESSAGE))
+            return "last";
+        return section != null ? "main" : "alternative";
+    }
+
+    /**
+     * Records the time of a stage in the metrics and in the trace.
+     *
+     * @param stage
+     * @param started System.nanoTime() at the start of the stage
+     */
+    private void Trace(String stage, long started) {
+        long elapsed = Metrics.time("parse."+stage, started);
+        if(Log.isEnabled(Log.Level.DEBUG)) {
+            if(trace == null)
+                trace = new StringBuilder();
+            else
+                trace.append(", ");
+            trace.append(stage).append(' ').append(String.format(Locale.ROOT, "%.1fms", elapsed/1e6));
+        }
+    }
+
+    /**
+     * Extracts the lead and every section of the page, as an article for a
+     * snapshot; each section keeps only its own text, so no text is stored
+     * twice.
+     *
+     * @return
+     */
+    public Snapshot.Article toArticle() {
+        List<SectionIndex.Section> sections = Index().getSections();
+        Element first = sections.isEmpty() ? null : sections.get(0).getBoundary();
+        Elements roots = parser.getContentQuery().Select(doc);
+        Element root = roots.isEmpty() ? doc.body() : roots.first();
+        if(first != null && !first.parents().contains(root))
+            root = doc.body(); // the headings were found out of the content
+        String lead = parser.RemoveUnnecessaryThings(SectionExtractor.ExtractLead(root, first, parser::IsUnnecessary));
+
+        String[] titles = new String[sections.size()];
+        String[] texts = new String[sections.size()];
+        for(int i = 0; i < titles.length; i++) {
+            titles[i] = sections.get(i).getTitle();
+            texts[i] = parser.RemoveUnnecessaryThings(SectionExtractor.ExtractOwn(sections.get(i), parser::IsUnnecessary));
+        }
+        return new Snapshot.Article(query, parser.Title(doc), Options(), lead, titles, texts);
+    }
+
+    /**
+     * Builds the immutable result of this context.
+     *
+     * @return
+     */
+    public ParseResult toResult() {
+        return new ParseResult(parser.getSource(), query, parser.Title(doc), aim, Options(), content);
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.scrapper;
+
+import java.util.List;
+
+/**
+* Name: ParseResult
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Immutable result of a scrap, safe to share between threads.
+*/
+public final class ParseResult {
+
+    private final String source;
+    private final String query;
+    private final String title;
+    private final String section;
+    private final String[] options;
+    private final String content;
+
+    public ParseResult(String source, String query, String title, String section, String[] options, String content) {
+        this.source = source;
+        this.query = query;
+        this.title = title;
+        this.section = section;
+        this.options = options != null ? options.clone() : new String[0];
+        this.content = content;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public String[] getOptions() {
+        return options.clone();
+    }
+
+    public List<String> getSections() {
+        return ParserWithMenu.Sections(options);
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    @Override
+    public String toString() {
+        return content;
+    }
+
+}
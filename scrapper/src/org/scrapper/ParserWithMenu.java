@@ -1,52 +1,62 @@
 package org.scrapper;
 
 import java.io.IOException;
-import org.jsoup.Jsoup;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import org.jsoup.nodes.Document;
-import org.jsoup.safety.Whitelist;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Element;
 
 import static org.scrapper.Builder.*;
 
 /**
 * Name: ParserWithMenu
  Date: 15-12-2016
- Update: 14-01-2017
- Description: Conversion object class.
+ Update: 17-10-2026
+ Description: Conversion object class. The state of each query lives in a
+ ParseContext; this object only keeps the last one for the menu flow.
 */
-public abstract class ParserWithMenu implements Parser{
+public abstract class ParserWithMenu implements Parser, SectionParser{
 
     /*
     * =========================    VARIABLES    ================================
     */
 
     private boolean status = false, display = false;
-    private String aim = null, nextOption = null, searchQuery = null, content = null;
-    private String[] allOptions = null;
-    private Document code = null, doc = null;
+    private String searchQuery = null;
+    private ParseContext context = null; // last context, used by the menu flow
+    private volatile ResultCache cache = null; // results of the stateless flow, when set
+    private volatile Fetcher fetcher = null; // own fetcher of this site, when set
 
     /*
     * =========================    CONSTANTS    ================================
     */
-    
-    private String tag = null; // mainly marcation tag in the page 
+
+    private String tag = null; // mainly marcation tag in the page
     private String mainTag = null; // tag and id or class that indicates main titles in the page
     private String contentTag = null; // id or class that indicates the content to scrap
+    private Selectors.Query mainQuery = null; // mainTag, compiled once
+    private Selectors.Query contentQuery = null; // contentTag, compiled once
     private String source = null; // Website to scrap
- 
+
     /*
     * =========================    MESSAGES    =================================
     */
-    
-    private final String INIT_MESSAGE = " JScrapper "+Parser.VERSION+".";
-    private final String PARSING_ERROR_MESSAGE = "Error in scrapping proccess.";
-    private final String NOT_FOUND_MESSAGE = "Not found.";
-    private final String NULL_ARGS_ERROR = "Should not use null arguments here.";
-    private final String CONNECTION_FAILED_MESSAGE = "Could not connect to the page.";
-    private final String ALL_OPTIONS_MESSAGE = "See All";
-    private final String NOT_CONNECTED_MESSAGE = "Parser is not connected to the page.";
-    private final String UNKNOW_ERROR_MESSAGE = "Unknow error.";
-    
+
+    static final String INIT_MESSAGE = " JScrapper "+Parser.VERSION+".";
+    static final String PARSING_ERROR_MESSAGE = "Error in scrapping proccess.";
+    static final String NOT_FOUND_MESSAGE = "Not found.";
+    static final String NULL_ARGS_ERROR = "Should not use null arguments here.";
+    static final String CONNECTION_FAILED_MESSAGE = "Could not connect to the page.";
+    static final String ALL_OPTIONS_MESSAGE = "See All";
+    static final String NOT_CONNECTED_MESSAGE = "Parser is not connected to the page.";
+    static final String UNKNOW_ERROR_MESSAGE = "Unknow error.";
+
     /*
     * =========================    CONSTRUCTORS    =============================
     */
@@ -56,7 +66,7 @@ public abstract class ParserWithMenu implements Parser{
     }
 
     public ParserWithMenu(boolean status, boolean display) {
-        print(INIT_MESSAGE);
+        Log.info(() -> INIT_MESSAGE);
         this.status = status;
         this.display = display;
     }
@@ -66,60 +76,135 @@ public abstract class ParserWithMenu implements Parser{
     */
 
     public String[] getOptions() {
-        if (allOptions != null)
-            return allOptions;
+        if (context != null)
+            return context.Options();
         return new String[]{NOT_FOUND_MESSAGE};
     }
-    
+
+    public List<String> getSections() {
+        if (context != null)
+            return context.Sections();
+        return Collections.emptyList();
+    }
+
     public String getTag() {
         return tag;
     }
-    
+
     public String getMainTag() {
         return this.mainTag;
     }
-    
+
     public String getContentTag() {
         return this.contentTag;
     }
-    
+
+    public Selectors.Query getMainQuery() {
+        return this.mainQuery;
+    }
+
+    public Selectors.Query getContentQuery() {
+        return this.contentQuery;
+    }
+
     public String getSource() {
         return source;
     }
-    
+
+    boolean isStatus() {
+        return status;
+    }
+
+    boolean isDisplay() {
+        return display;
+    }
+
     public void setTag(String tag) {
         if(tag == null)
             throw new RuntimeException("Tag must not be null.");
         this.tag = tag;
     }
-    
+
     public void setMainTag(String tag) {
         if(tag == null)
             throw new RuntimeException("Main tag must not be null.");
         this.mainTag = tag;
+        this.mainQuery = Selectors.Query(tag);
     }
-    
+
     public void setContentTag(String tag) {
         if(tag == null)
             throw new RuntimeException("Content tag must not be null.");
         this.contentTag = tag;
+        this.contentQuery = Selectors.Query(tag);
+    }
+
+    public ResultCache getCache() {
+        return cache;
     }
-    
+
+    /**
+     * Sets the cache of the stateless Parse; null disables it.
+     *
+     * @param cache
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the fetcher of this site, or the shared one of the Builder.
+     *
+     * @return
+     */
+    public Fetcher getFetcher() {
+        Fetcher own = fetcher;
+        return own != null ? own : Builder.getFetcher();
+    }
+
+    /**
+     * Sets the fetcher of this site; null goes back to the shared one.
+     *
+     * @param fetcher
+     */
+    public void setFetcher(Fetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
     public void setSource(String url) {
         if(url == null)
             throw new RuntimeException("Source must not be null.");
         this.source = url;
     }
-    
+
     /*
     * =====================    ABSTRACT METHODS    =============================
-    */    
-    
+    */
+
     /**
      * This method MUST initialize all tags as well the source url.
      */
     public abstract void initTagsAndSource();
 
+    /**
+     * Removes what must not be in the result from the text extracted by every
+     * parse path, like notes left in the page text.
+     *
+     * @param code
+     * @return
+     */
+    public abstract String RemoveUnnecessaryThings(String code);
+
+    /**
+     * Tells if the element must be left out of the content, like edit links.
+     *
+     * @param element
+     * @return
+     */
+    public boolean IsUnnecessary(Element element) {
+        return false;
+    }
+
     /*
     * ===========================    METHODS    ================================
     */
@@ -129,37 +214,12 @@ public abstract class ParserWithMenu implements Parser{
      *
      * @param code
      * @return
+     * @deprecated no parse path calls it; the section is read from the DOM by Core
      */
+    @Deprecated
     public String MainParseMethod(String code) {
-        if(status) {
-            print("> Main method.");
-        }
-        if(display) print(Title(doc)+"\n");
-
-        Whitelist wl = new Whitelist();
-        wl.addTags(getTag(), "p");
-
-        // Clean using the allowed tags of the whitelist
-        String cleanCode = Jsoup.clean(code, wl);
-
-        cleanCode = RemoveUnnecessaryThings(cleanCode);
-
-        String ocurrency = "<"+getTag()+">"+aim+"</"+getTag()+">";
-        String limit = "<"+getTag()+">"+nextOption+"</"+getTag()+">";
-
-        cleanCode = cleanCode.substring(cleanCode.lastIndexOf(ocurrency)+ocurrency.length());
-
-        if(cleanCode.contains(limit))
-            cleanCode = cleanCode.substring(0, cleanCode.indexOf(limit));
-        
-        content = clear(cleanCode);
-        
-        if(display) print(content);
-
-        return content;
+        return Context().MainParseMethod(code);
     }
-    
-    public abstract String RemoveUnnecessaryThings(String code);
 
     /**
      * Alternatively parse method, used if main fails; less accurate.
@@ -168,24 +228,7 @@ public abstract class ParserWithMenu implements Parser{
      * @return
      */
     public String AlternativeParseMethod(String code) {
-        try {
-            if(code.contains(aim) && code.contains("</p>")) {
-                if(status) {
-                    print("> Alternative method.");
-                }
-                String minified = code.substring(code.indexOf(aim), code.length());
-                code = minified.substring(0, minified.indexOf("</p>"));
-                content = clear(code); // Clear tags html off the code.
-                
-                if(display) print(Title(doc)+"\n");
-                if(display) print(content+"\n");
-            }
-        }catch(Exception ev) {
-            print(ev.getMessage()+"\n", "red");
-            return PARSING_ERROR_MESSAGE;
-        }
-
-        return content;
+        return Context().AlternativeParseMethod(code);
     }
 
     /**
@@ -194,17 +237,7 @@ public abstract class ParserWithMenu implements Parser{
      * @return
      */
     public String LastParseMethod() {
-        if(status) {
-            print("> Last method.");
-        }
-        if(display) print(Title(doc)+"\n");
-
-        content = doc.select(getContentTag()).select("p").toString().replace("\n", "ʘ");
-        content = clear(content).replace("ʘ", "\n");
-
-        if(display) print(content);
-
-        return content;
+        return Context().LastParseMethod();
     }
 
     /**
@@ -215,84 +248,19 @@ public abstract class ParserWithMenu implements Parser{
      * @throws Exception
      */
     public String Core() throws NullPointerException, Exception{
+        return Context().Core();
+    }
 
-        // Show options dialog
-        try {
-            // Options selection dialog
-            Object[] opcoes = Options(doc);
-            aim = get("Options:", opcoes);
-            int i = 0;
-            for(Object opcao : opcoes) {
-                if(opcao.equals(aim)) break;
-                else i++;
-            }
-            if(!aim.equals(opcoes[opcoes.length-1]))
-                nextOption = opcoes[i+1].toString().replace(" - ", "");
-            if (status) print("> Searching:"+aim);
-
-        }catch (NullPointerException ex) {
-            throw new NullPointerException("Core Error\n"+NULL_ARGS_ERROR);
-        }
-
-        // ParserWithMenu only if verification returns true
-        if(Verify()) {
-
-            if(status) print("> Verified.");
-            if(status) print("> Showing options. ");
-
-            if(display) {
-                print(); // new line
-                for(String opcao : Options(doc)) {
-                    print(opcao);
-                }
-            }
-
-            // Gets p tags
-            Elements tags = doc.body().getElementsByTag("p");
-            String text = tags.toString();
-
-            // Gets content 
-            String all = doc.body().select(getContentTag()).toString();
-
-           /**
-            * Scrapping core process.
-            */
-
-           if(!aim.equals(ALL_OPTIONS_MESSAGE)) {
-
-                if(all.contains(aim)) {
-                    /*
-                    * Principal processo de raspagem. Usa as opcoes para buscar.
-                    *
-                    * Gera um novo código limpo por uma Whitelist do Jsoup.
-                    * Cria substring partindo do titulo escolhido e retirando caracter que
-                    * pode gerar erro na próxima substring.
-                    * Cria a última substring usando o próximo item como limite.
-                    */
-
-                    content = MainParseMethod(all);
-                }else{
-                    /*
-                    * Processo de raspagem alternativo. Usa parte do texto para buscar.
-                    *
-                    * Primeiro é cortado da busca até o final. Depois pegamos esse corte
-                    * e limitamos até a próxima tag. Então converte-se novamente com o Jsoup
-                    * para poder usar o método text().
-                    */
-
-                    content = AlternativeParseMethod(text);
-                }
-
-            }else{
-               content = LastParseMethod();
-            }
-
-            if(content != null)
-                return content;
-        }
-
-        throw new Exception(PARSING_ERROR_MESSAGE);
-
+    /**
+     * Parser core method, without any dialog.
+     *
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @return
+     * @throws NullPointerException
+     * @throws Exception
+     */
+    public String Core(String section) throws NullPointerException, Exception{
+        return Context().Core(section);
     }
 
     /**
@@ -302,15 +270,61 @@ public abstract class ParserWithMenu implements Parser{
      * @return
      */
     public String[] Options(Document doc) {
-        String[] options = doc.select(getMainTag()).toString().split("\n");
-        allOptions  = new String[options.length+1];
+        return Options(Index(doc));
+    }
+
+    /**
+     * Gets options of an indexed page.
+     *
+     * @param index
+     * @return
+     */
+    static String[] Options(SectionIndex index) {
+        List<String> titles = index.Titles();
+        String[] allOptions  = new String[titles.size()+1];
         allOptions[0] = " - "+ALL_OPTIONS_MESSAGE;
-        for(int i = 0; i < options.length; i++) {
-            allOptions[i+1] = " - "+clear(options[i]);
+        for(int i = 0; i < titles.size(); i++) {
+            allOptions[i+1] = " - "+titles.get(i);
         }
         return allOptions;
     }
 
+    /**
+     * Builds the index of the sections of the page.
+     *
+     * @param doc
+     * @return
+     */
+    public SectionIndex Index(Document doc) {
+        return SectionIndex.Build(doc, getContentQuery(), getMainQuery());
+    }
+
+    /**
+     * Removes the menu mark of an option.
+     *
+     * @param option
+     * @return
+     */
+    static String Unmark(String option) {
+        return option.startsWith(" - ") ? option.substring(3) : option;
+    }
+
+    /**
+     * Gets the section titles of the page, without the menu marks.
+     *
+     * @param options
+     * @return
+     */
+    static List<String> Sections(String[] options) {
+        List<String> sections = new ArrayList<>(options.length);
+        for(String option : options) {
+            String section = Unmark(option).trim();
+            if(!section.equals(ALL_OPTIONS_MESSAGE))
+                sections.add(section);
+        }
+        return Collections.unmodifiableList(sections);
+    }
+
     /**
      * Connects to the webpage.
      *
@@ -320,53 +334,101 @@ public abstract class ParserWithMenu implements Parser{
      * @throws java.io.IOException
      */
     public boolean Initialize(String url) throws Exception, IOException{
-        try {
-            code = connect(url);
-            return true;
-            
-        } catch (IOException ex) {
-            throw new IOException("Initializing error\n"+CONNECTION_FAILED_MESSAGE);
-            
-        } catch(Exception ev) {
-            throw new Exception("Initializing error\n"+UNKNOW_ERROR_MESSAGE);
-        }
+        context = new ParseContext(this, searchQuery, Fetch(url, getFetcher()));
+        return true;
     }
 
     /**
-     * Verify the code.
+     * Connects to the webpage and opens a new context for the query.
      *
+     * @param query
      * @return
      * @throws java.lang.Exception
+     * @throws java.io.IOException
      */
-    public boolean Verify() throws Exception, NullPointerException{
+    public ParseContext Open(String query) throws Exception, IOException{
+        return Open(query, getFetcher());
+    }
 
-        aim = aim.replace(" - ", "");
+    /**
+     * Connects to the webpage through the given fetcher, like a dump, and
+     * opens a new context for the query. This object is not changed.
+     *
+     * @param query
+     * @param fetcher
+     * @return
+     * @throws java.lang.Exception
+     * @throws java.io.IOException
+     */
+    public ParseContext Open(String query, Fetcher fetcher) throws Exception, IOException{
+        if(fetcher == null)
+            throw new NullPointerException(NULL_ARGS_ERROR);
+        return new ParseContext(this, query, Fetch(getSource()+query, fetcher));
+    }
 
+    /**
+     * Gets the page, translating the errors.
+     *
+     * @param url
+     * @return
+     * @throws java.lang.Exception
+     * @throws java.io.IOException
+     */
+    private Document Fetch(String url, Fetcher fetcher) throws Exception, IOException{
         try {
-            boolean verify_code = code.toString().isEmpty();
-        }catch(NullPointerException ex) {
-            throw new NullPointerException("Verify error\n"+NULL_ARGS_ERROR);
-        }
+            return connect(url, fetcher);
 
-        if(aim == null) {
-            throw new NullPointerException("Verify error\n"+NULL_ARGS_ERROR);
-        }
+        } catch (FetchException ex) {
+            // keeps the status, so a throttled host is told from a missing page
+            throw new IOException("Initializing error\n"+CONNECTION_FAILED_MESSAGE+" (HTTP "+ex.getStatus()+")", ex);
 
-        if(getSource() == null) {
-            throw new NullPointerException("Verify error\n"+NULL_ARGS_ERROR);
-        }
+        } catch (IOException ex) {
+            throw new IOException("Initializing error\n"+CONNECTION_FAILED_MESSAGE, ex);
 
-        if(!code.toString().contains(aim) && !aim.equals(ALL_OPTIONS_MESSAGE)) {
-            throw new Exception("Verify error\n"+NOT_FOUND_MESSAGE);
+        } catch(Exception ev) {
+            throw new Exception("Initializing error\n"+UNKNOW_ERROR_MESSAGE, ev);
         }
+    }
 
-        return true;
+    /**
+     * Verify the code.
+     *
+     * @return
+     * @throws java.lang.Exception
+     */
+    public boolean Verify() throws Exception, NullPointerException{
+        return Context().Verify();
     }
-    
+
+    /**
+     * Gets the context of the last query.
+     *
+     * @return
+     */
+    private ParseContext Context() {
+        if(context == null)
+            throw new NullPointerException(NOT_CONNECTED_MESSAGE);
+        return context;
+    }
+
+    /**
+     * Translates an error of the scrap process.
+     *
+     * @param ex
+     * @return
+     */
+    RuntimeException ParsingError(Exception ex) {
+        if(ex instanceof IOException)
+            return new RuntimeException("Parsing error\n"+NOT_CONNECTED_MESSAGE, ex);
+        if(ex instanceof NullPointerException)
+            return new RuntimeException("Parsing error\n"+NULL_ARGS_ERROR, ex);
+        return new RuntimeException("Parsing error\n"+UNKNOW_ERROR_MESSAGE, ex);
+    }
+
     /*
     * ======================    OVERRIDEN METHODS    ===========================
     */
-    
+
     /**
      * Prepares and calls the Core of the scrap process
      *
@@ -380,26 +442,153 @@ public abstract class ParserWithMenu implements Parser{
         try{
             searchQuery = query;
             if(Initialize(getSource()+searchQuery)){  // throws IOException
-                if(status) print("> Initialized.");
-                if(status) print("> Source: "+getSource());
-                // Gets the code and parse it
-                doc = Jsoup.parse(code.toString());
-                return Core(); 
+                if(status) Log.info(() -> "> Initialized.");
+                if(status) Log.info(() -> "> Source: "+getSource());
+                // The fetched document is used as is, no need to parse it again
+                return Core();
             }else{
                 return NOT_FOUND_MESSAGE;
             }
-            
-        }catch(IOException ex){
-            throw new RuntimeException("Parsing error\n"+NOT_CONNECTED_MESSAGE);
-            
-        }catch(NullPointerException ex){
-            throw new RuntimeException("Parsing error\n"+NULL_ARGS_ERROR);
-            
+
+        }catch(final Exception ex){
+            throw ParsingError(ex);  // rethrow
+        }
+    }
+
+    /**
+     * Scraps the section of the query without touching this object,
+     * so it may be called by many threads at the same time.
+     *
+     * @param query
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @return
+     */
+    @Override
+    public ParseResult Parse(String query, String section){
+        long started = System.nanoTime();
+        try{
+            ResultCache results = cache;
+            if(results != null)
+                return results.Get(getSource(), query, section, () -> Scrap(query, section));
+            return Scrap(query, section);
+
+        }catch(final Exception ex){
+            Metrics.count("parse.errors");
+            throw ParsingError(ex);
+        }finally{
+            Metrics.time("parse.total", started);
+        }
+    }
+
+    private ParseResult Scrap(String query, String section) throws Exception{
+        long started = System.nanoTime();
+        ParseContext request = Open(query);  // throws IOException
+        long fetched = System.nanoTime()-started;
+        if(status) Log.info(() -> "> Initialized.");
+        if(status) Log.info(() -> "> Source: "+getSource());
+        request.Core(section);
+        Log.debug(() -> "> Trace "+query+" ("+request.getAim()+"): fetch "+String.format(Locale.ROOT, "%.1fms", fetched/1e6)+", "+request.getTrace());
+        return request.toResult();
+    }
+
+    /**
+     * Gets the section titles of the query page, without scrapping any.
+     *
+     * @param query
+     * @return
+     */
+    @Override
+    public List<String> Sections(String query){
+        try{
+            return Open(query).Sections();  // throws IOException
+
+        }catch(final Exception ex){
+            throw ParsingError(ex);
+        }
+    }
+
+    /**
+     * Scraps the section of the query while the page is read, without the
+     * DOM. The connection is closed as soon as the section ends.
+     *
+     * @param query
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @return the clean text of the section
+     */
+    @Override
+    public String Stream(String query, String section){
+        try{
+            StreamingExtractor extractor = new StreamingExtractor(getContentTag(), getMainTag(), this::IsUnnecessary);
+            String content;
+            long started = System.nanoTime();
+            try(Reader page = getFetcher().Stream(getSource()+query)){  // throws IOException
+                if(status) Log.info(() -> "> Streaming: "+getSource()+query);
+                content = extractor.Extract(page, section);
+                if(content != null)
+                    content = RemoveUnnecessaryThings(content);
+            }finally{
+                Metrics.time("stream.total", started);
+            }
+            if(content == null)
+                throw new Exception("Verify error\n"+NOT_FOUND_MESSAGE);
+            return content;
+
         }catch(final Exception ex){
-            throw new RuntimeException("Parsing error\n"+UNKNOW_ERROR_MESSAGE);  // rethrow 
+            throw ParsingError(ex);
         }
     }
-    
+
+    /**
+     * Brings up all content of the query page while it is read, pushing each
+     * paragraph as soon as it is closed. Only one paragraph is held at a time.
+     *
+     * @param query
+     * @param paragraphs receives the clean text of each paragraph
+     * @return number of paragraphs pushed
+     */
+    public int Stream(String query, Consumer<CharSequence> paragraphs){
+        try{
+            StreamingExtractor extractor = new StreamingExtractor(getContentTag(), getMainTag(), this::IsUnnecessary);
+            int[] pushed = {0};
+            try(Reader page = getFetcher().Stream(getSource()+query)){  // throws IOException
+                if(status) Log.info(() -> "> Streaming: "+getSource()+query);
+                int count = extractor.Extract(page, (CharSequence paragraph) -> {
+                    String text = RemoveUnnecessaryThings(paragraph.toString());
+                    if(!text.isEmpty()) {
+                        paragraphs.accept(text);
+                        pushed[0]++;
+                    }
+                });
+                if(count < 0)
+                    throw new Exception("Verify error\n"+NOT_FOUND_MESSAGE);
+            }
+            return pushed[0];
+
+        }catch(final UncheckedIOException ex){
+            throw ParsingError(ex.getCause());
+        }catch(final Exception ex){
+            throw ParsingError(ex);
+        }
+    }
+
+    /**
+     * Writes all content of the query page while it is read, one paragraph
+     * per line. The writer is neither flushed nor closed here.
+     *
+     * @param query
+     * @param out
+     * @return number of paragraphs written
+     */
+    public int Stream(String query, Writer out){
+        return Stream(query, (CharSequence paragraph) -> {
+            try {
+                out.append(paragraph).append('\n');
+            }catch(IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
     /**
      * Gets the webpage title.
      *
@@ -410,7 +599,7 @@ public abstract class ParserWithMenu implements Parser{
     public String Title(Document code){
         if (code != null)
             return code.title();
-        else 
+        else
             return NULL_ARGS_ERROR;
     }
 
@@ -1,63 +1,94 @@
 package org.scrapper;
 
-import java.io.IOException;
-import java.io.OutputStream;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.AbstractAction;
+import javax.swing.AbstractListModel;
 import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 /**
 * Name: Graphical User Interface
  Date: 26-12-2016
- Update: 14-01-2017
- Description: ParserWithMenuGUI implementation class.s
+ Update: 17-10-2026
+ Description: ParserWithMenuGUI implementation class. The lookups run one
+ after another on a background worker, so the window never waits for the
+ network; Esc cancels the running lookup and the queued ones.
 */
 
 public class ParserWithMenuGUI extends javax.swing.JFrame {
 
-    private StringBuilder sb;
-    private String lastSearch = "";
+    private static final int LOG_BUFFER = 2000; // lines kept between two refreshes
+    private static final int LOG_LINES = 500; // lines shown
+    private static final int LOG_REFRESH = 200; // milliseconds
 
-    private int statusIterator = 0;
-    private boolean started = false;
-    private boolean newSearch = true;
+    private final LogSink log = new LogSink(LOG_BUFFER);
+    private final LogModel logModel = new LogModel(LOG_LINES);
 
     private DefaultListModel dm;
 
+    // Lookups run in order on this thread; the queue is used only on the EDT
+    private final ExecutorService lookups = Executors.newSingleThreadExecutor((Runnable task) -> {
+        Thread thread = new Thread(task, "scrapper-gui");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Lookup> queue = new ArrayList<>();
+    private volatile ParseContext lastContext = null; // page of the last lookup, reused by the same query
+
     /**
      * GUI constructor.
      */
     public ParserWithMenuGUI() {
         this.dm = new DefaultListModel();
-        this.sb = new StringBuilder();
-        DefaultListModel dlm = new DefaultListModel();
         
         initComponents();
         
-        // Define the default stream output as the jList.
-        OutputStream out = new OutputStream() {
-            @Override
-            public void write(int b) throws IOException {
-                if (b == '\r')
-                    return;
-
-                if (b == '\n') {
-                    final String text = sb.toString().replace("[34m", "").replace("[0m", "").replace("[31m", "") + "\n";
-                    SwingUtilities.invokeLater(() -> {
-                        dlm.add(statusIterator, text);
-                        statusIterator++;
-                        jList2.setModel(dlm);
-                    });
-                    sb.setLength(0);
-                    sb.append("");
-                    return;
-                }
-                sb.append((char) b);
-            }
-        };
-        System.setOut(new PrintStream(out));        
+        // Define the default stream output as the jList; the lines are
+        // buffered and shown in batches, so printing never floods the EDT.
+        try {
+            System.setOut(new PrintStream(log, true, "UTF-8"));
+        }catch(UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex); // UTF-8 is always supported
+        }
+        jList2.setModel(logModel);
+        List<String> lines = new ArrayList<>();
+        new Timer(LOG_REFRESH, (ActionEvent e) -> {
+            long dropped = log.Drain(lines);
+            if(dropped > 0)
+                lines.add(0, "... "+dropped+" linhas omitidas");
+            if(lines.isEmpty())
+                return;
+            logModel.AddAll(lines);
+            lines.clear();
+            jList2.ensureIndexIsVisible(logModel.getSize()-1);
+        }).start();
         
         jLabel1.setText("Fonte: "+ WikipediaParser.WIKI.getSource());
+
+        // Esc cancels the lookups
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "cancel");
+        getRootPane().getActionMap().put("cancel", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Cancel();
+            }
+        });
+        jButton1.setToolTipText("Esc cancela as pesquisas");
     }
     
     @SuppressWarnings("unchecked")
@@ -202,11 +233,7 @@ public class ParserWithMenuGUI extends javax.swing.JFrame {
         
         String query = jTextField1.getText();
         
-        try{
-            Search(query);
-        }catch(final Exception ex){
-            Builder.show(ex.getMessage());
-        }
+        Search(query);
         
     }//GEN-LAST:event_jButton1ActionPerformed
 
@@ -215,28 +242,156 @@ public class ParserWithMenuGUI extends javax.swing.JFrame {
                 "\nThe content of webpages sources are responsibility of it owners.");
     }//GEN-LAST:event_jMenu2MouseClicked
 
-    private void Search(String query) throws Exception{
-        // Verify if it is a new search
-        newSearch = !lastSearch.equals(jTextField1.getText());
-        
-        // Do the search and show in JTextArea
-        if (started && !newSearch) {
-            jTextArea1.setText( WikipediaParser.WIKI.Core());
-        }else {
-            jTextArea1.setText( WikipediaParser.WIKI.Parse(query));
-            lastSearch = jTextField1.getText();
-            started = true;
+    /**
+     * Queues a lookup; it runs after the ones already queued.
+     *
+     * @param query
+     */
+    private void Search(String query) {
+        Lookup lookup = new Lookup(query);
+        queue.add(lookup);
+        lookups.execute(lookup);
+        Status(lookup.query, 0);
+    }
+
+    /**
+     * Cancels the running lookup and the queued ones.
+     */
+    private void Cancel() {
+        for(Lookup lookup : queue)
+            lookup.cancel(true);
+        queue.clear();
+        jLabel1.setText("Fonte: "+ WikipediaParser.WIKI.getSource()+"  |  Cancelado");
+    }
+
+    private void Status(String query, int progress) {
+        String waiting = queue.size() > 1 ? "  ("+(queue.size()-1)+" na fila)" : "";
+        jLabel1.setText("Fonte: "+ WikipediaParser.WIKI.getSource()+"  |  "+query+": "+progress+"%"+waiting);
+    }
+
+    /**
+     * List of the last lines of the log; a batch of lines fires one event.
+     */
+    private static final class LogModel extends AbstractListModel<String> {
+        private static final long serialVersionUID = 1L;
+        private final String[] lines; // ring buffer
+        private int first = 0, size = 0;
+
+        private LogModel(int capacity) {
+            this.lines = new String[capacity];
         }
-        
-        // Put the options in the JList
-        String[] options =  WikipediaParser.WIKI.getOptions();
-        int i = 0;
-        dm.clear();
-        for(String option : options) {
-            dm.add(i, option);
-            i++;
+
+        private void AddAll(List<String> batch) {
+            int before = size;
+            int removed = 0;
+            for(String line : batch) {
+                if(size == lines.length) {
+                    lines[first] = line;
+                    first = (first+1) % lines.length;
+                    removed++;
+                }else {
+                    lines[(first+size) % lines.length] = line;
+                    size++;
+                }
+            }
+            // the oldest lines left from the top, the new ones came to the bottom
+            removed = Math.min(removed, before);
+            if(removed > 0)
+                fireIntervalRemoved(this, 0, removed-1);
+            int added = size-(before-removed);
+            if(added > 0)
+                fireIntervalAdded(this, size-added, size-1);
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return lines[(first+index) % lines.length];
+        }
+    }
+
+    /**
+     * Fetches the page, asks the section and scraps it, off the EDT.
+     * The same query as the last lookup reuses its page, so the result is
+     * taken before the next lookup may scrap that page again.
+     */
+    private final class Lookup extends SwingWorker<ParseResult, Integer> {
+        private final String query;
+
+        private Lookup(String query) {
+            this.query = query;
+        }
+
+        @Override
+        protected ParseResult doInBackground() throws Exception {
+            publish(10);
+            ParseContext context = lastContext;
+            if(context == null || !context.getQuery().equals(query))
+                context = WikipediaParser.WIKI.Open(query);  // throws IOException
+            lastContext = context;
+            if(isCancelled())
+                return null;
+
+            // The section is asked on the EDT, like any dialog
+            publish(50);
+            String[] options = context.Options();
+            String[] section = new String[1];
+            try {
+                SwingUtilities.invokeAndWait(() -> section[0] = Builder.get("Options:", options));
+            }catch(InvocationTargetException ex) {
+                if(ex.getCause() instanceof NullPointerException) {
+                    cancel(false); // the dialog was closed
+                    return null;
+                }
+                throw ex;
+            }
+            if(isCancelled())
+                return null;
+
+            publish(70);
+            context.Core(section[0]);
+            publish(100);
+            return context.toResult();
+        }
+
+        @Override
+        protected void process(List<Integer> chunks) {
+            if(!isCancelled() && queue.contains(this))
+                Status(query, chunks.get(chunks.size()-1));
+        }
+
+        @Override
+        protected void done() {
+            queue.remove(this);
+            if(isCancelled()) {
+                if(queue.isEmpty())
+                    jLabel1.setText("Fonte: "+ WikipediaParser.WIKI.getSource()+"  |  Cancelado");
+                return;
+            }
+            try {
+                ParseResult result = get();
+                jTextArea1.setText(result.getContent());
+                jTextArea1.setCaretPosition(0);
+
+                // Put the options in the JList
+                dm.clear();
+                for(String option : result.getOptions())
+                    dm.addElement(option);
+                jList1.setModel(dm);
+            }catch(ExecutionException ex) {
+                Exception error = ex.getCause() instanceof Exception
+                        ? WikipediaParser.WIKI.ParsingError((Exception) ex.getCause()) : ex;
+                Builder.show(error.getMessage());
+            }catch(InterruptedException | CancellationException ex) {
+                return;
+            }
+            if(queue.isEmpty())
+                jLabel1.setText("Fonte: "+ WikipediaParser.WIKI.getSource());
         }
-        jList1.setModel(dm);
     }
     
     // Variables declaration - do not modify//GEN-BEGIN:variables
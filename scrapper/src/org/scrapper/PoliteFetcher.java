@@ -0,0 +1,238 @@
+package org.scrapper;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Name: PoliteFetcher
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Schedules the requests of each host. A token bucket bounds
+* the request rate and a semaphore bounds the requests at the same time.
+* Throttling answers (429 and 5xx) are retried after the Retry-After of the
+* host, or after an exponential backoff with jitter, and they halve the rate
+* of the host; each success gives some of it back. So the rate follows what
+* the host allows instead of turning into a storm of errors.
+*/
+public final class PoliteFetcher implements Fetcher {
+
+    public static final double DEFAULT_RATE = 5; // requests per second per host
+    public static final int DEFAULT_BURST = 5; // requests
+    public static final int DEFAULT_CONCURRENCY = 4; // requests per host at the same time
+    public static final int DEFAULT_RETRIES = 3;
+
+    private static final long BASE_BACKOFF = 500; // milliseconds
+    private static final long MAX_BACKOFF = 60000; // milliseconds
+    private static final double MIN_RATE = 0.1; // requests per second
+    private static final double RECOVERY = 0.05; // part of the rate given back on each success
+
+    private final Fetcher fetcher;
+    private final double rate;
+    private final int burst;
+    private final int concurrency;
+    private final int retries;
+    private final ConcurrentHashMap<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public PoliteFetcher(Fetcher fetcher) {
+        this(fetcher, DEFAULT_RATE, DEFAULT_BURST, DEFAULT_CONCURRENCY, DEFAULT_RETRIES);
+    }
+
+    public PoliteFetcher(Fetcher fetcher, double rate, int burst, int concurrency, int retries) {
+        if(fetcher == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        if(rate <= 0 || burst < 1 || concurrency < 1 || retries < 0)
+            throw new IllegalArgumentException("Rate, burst and concurrency must be positive.");
+        this.fetcher = fetcher;
+        this.rate = rate;
+        this.burst = burst;
+        this.concurrency = concurrency;
+        this.retries = retries;
+    }
+
+    @Override
+    public Page Fetch(String url, Map<String, String> headers) throws IOException {
+        Host host = Host(url);
+        for(int attempt = 0; ; attempt++) {
+            host.Acquire();
+            try {
+                Page page = fetcher.Fetch(url, headers);
+                host.Success();
+                return page;
+            }catch(FetchException ex) {
+                if(!IsThrottling(ex.getStatus()) || attempt >= retries)
+                    throw ex;
+                Metrics.count("fetch.throttled");
+                host.Throttled(Delay(ex, attempt));
+            }finally {
+                host.Release();
+            }
+        }
+    }
+
+    /**
+     * Opens the page within the limits of the host; the request counts as
+     * running until the reader is closed.
+     */
+    @Override
+    public Reader Stream(String url) throws IOException {
+        Host host = Host(url);
+        for(int attempt = 0; ; attempt++) {
+            host.Acquire();
+            Reader reader;
+            try {
+                reader = fetcher.Stream(url);
+            }catch(FetchException ex) {
+                host.Release();
+                if(!IsThrottling(ex.getStatus()) || attempt >= retries)
+                    throw ex;
+                Metrics.count("fetch.throttled");
+                host.Throttled(Delay(ex, attempt));
+                continue;
+            }catch(IOException | RuntimeException ex) {
+                host.Release();
+                throw ex;
+            }
+            host.Success();
+            return new FilterReader(reader) {
+                private boolean closed = false;
+
+                @Override
+                public void close() throws IOException {
+                    if(closed)
+                        return;
+                    closed = true;
+                    try {
+                        super.close();
+                    }finally {
+                        host.Release();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Gets the current rate of the host.
+     *
+     * @param url any page of the host
+     * @return requests per second
+     * @throws IOException
+     */
+    public double getRate(String url) throws IOException {
+        return Host(url).Rate();
+    }
+
+    static boolean IsThrottling(int status) {
+        return status == 429 || status >= 500 && status < 600;
+    }
+
+    /**
+     * Gets the wait before the next attempt: the Retry-After of the answer,
+     * or a backoff that doubles on each attempt, with full jitter.
+     */
+    static long Delay(FetchException ex, int attempt) {
+        if(ex.getRetryAfter() >= 0)
+            return Math.min(ex.getRetryAfter(), MAX_BACKOFF);
+        long backoff = Math.min(MAX_BACKOFF, BASE_BACKOFF << Math.min(attempt, 16));
+        return ThreadLocalRandom.current().nextLong(backoff+1);
+    }
+
+    private Host Host(String url) throws IOException {
+        URL parsed = new URL(url);
+        String key = parsed.getProtocol()+"://"+parsed.getHost().toLowerCase(Locale.ROOT)+":"+parsed.getPort();
+        return hosts.computeIfAbsent(key, (String name) -> new Host(rate, burst, concurrency));
+    }
+
+    /**
+     * Limits of one host.
+     */
+    private static final class Host {
+        private final double maxRate;
+        private final int burst;
+        private final Semaphore running;
+
+        private double rate; // requests per second, lowered while throttled
+        private double tokens;
+        private long refilled = System.nanoTime();
+        private long blockedUntil = 0; // nano time, 0 when not blocked
+
+        private Host(double rate, int burst, int concurrency) {
+            this.maxRate = rate;
+            this.rate = rate;
+            this.burst = burst;
+            this.tokens = burst;
+            this.running = new Semaphore(concurrency, true);
+        }
+
+        /**
+         * Waits for a free slot and a token, and while the host is blocked.
+         */
+        private void Acquire() throws IOException {
+            try {
+                running.acquire();
+                try {
+                    long wait;
+                    while((wait = Take()) > 0)
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                }catch(InterruptedException ex) {
+                    running.release();
+                    throw ex;
+                }
+            }catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the host.");
+            }
+        }
+
+        private void Release() {
+            running.release();
+        }
+
+        /**
+         * Takes a token if there is one.
+         *
+         * @return 0 if taken, or the nanos to wait before trying again
+         */
+        private synchronized long Take() {
+            long now = System.nanoTime();
+            if(blockedUntil != 0 && now-blockedUntil < 0)
+                return blockedUntil-now;
+            tokens = Math.min(burst, tokens+(now-refilled)*rate/1e9);
+            refilled = now;
+            if(tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1-tokens)/rate*1e9);
+        }
+
+        private synchronized void Success() {
+            rate = Math.min(maxRate, rate+maxRate*RECOVERY);
+        }
+
+        /**
+         * Blocks the host for the delay and halves its rate.
+         */
+        private synchronized void Throttled(long delay) {
+            long until = System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(delay);
+            if(blockedUntil == 0 || until-blockedUntil > 0)
+                blockedUntil = until;
+            rate = Math.max(MIN_RATE, rate/2);
+            tokens = Math.min(tokens, 0);
+        }
+
+        private synchronized double Rate() {
+            return rate;
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+package org.scrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Name: ResultCache
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Keeps the final results in memory, keyed by source, query
+* and section. It is bounded in entries and in time, and concurrent misses
+* on the same key wait for a single scrap instead of repeating it.
+*/
+public final class ResultCache {
+
+    private final int maxEntries;
+    private final long ttl; // milliseconds, 0 never expires
+
+    private final LinkedHashMap<Key, Cached> entries;
+    private final ConcurrentHashMap<Key, FutureTask<ParseResult>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResultCache(int maxEntries, long ttl) {
+        if(maxEntries <= 0 || ttl < 0)
+            throw new IllegalArgumentException("Cache size must be positive and ttl must not be negative.");
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<Key, Cached>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached result or scraps it with the loader.
+     *
+     * @param source
+     * @param query
+     * @param section
+     * @param loader
+     * @return
+     * @throws Exception the loader error
+     */
+    public ParseResult Get(String source, String query, String section, Callable<ParseResult> loader) throws Exception {
+        Key key = new Key(source, query, section);
+
+        synchronized(entries) {
+            Cached entry = entries.get(key);
+            if(entry != null && !entry.isExpired()) {
+                hits.incrementAndGet();
+                Metrics.count("cache.result.hits");
+                return entry.result;
+            }
+            if(entry != null)
+                entries.remove(key);
+        }
+        misses.incrementAndGet();
+        Metrics.count("cache.result.misses");
+
+        FutureTask<ParseResult> task = new FutureTask<>(loader);
+        FutureTask<ParseResult> running = loading.putIfAbsent(key, task);
+        if(running == null) {
+            running = task;
+            try {
+                task.run();
+                ParseResult result = task.get();
+                synchronized(entries) {
+                    entries.put(key, new Cached(result, ttl > 0 ? System.currentTimeMillis()+ttl : Long.MAX_VALUE));
+                }
+            }catch(ExecutionException ignored) {
+                // reported below, to every waiting caller
+            }finally {
+                loading.remove(key, task);
+            }
+        }
+
+        try {
+            return running.get();
+        }catch(ExecutionException ex) {
+            if(ex.getCause() instanceof Exception)
+                throw (Exception) ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the cached result without scrapping it, for callers that scrap
+     * in stages and keep the result with Put.
+     *
+     * @param source
+     * @param query
+     * @param section
+     * @return null on a miss
+     */
+    public ParseResult Peek(String source, String query, String section) {
+        Key key = new Key(source, query, section);
+        synchronized(entries) {
+            Cached entry = entries.get(key);
+            if(entry != null && !entry.isExpired()) {
+                hits.incrementAndGet();
+                Metrics.count("cache.result.hits");
+                return entry.result;
+            }
+            if(entry != null)
+                entries.remove(key);
+        }
+        misses.incrementAndGet();
+        Metrics.count("cache.result.misses");
+        return null;
+    }
+
+    /**
+     * Keeps the result scrapped after a miss of Peek.
+     *
+     * @param source
+     * @param query
+     * @param section
+     * @param result
+     */
+    public void Put(String source, String query, String section, ParseResult result) {
+        Key key = new Key(source, query, section);
+        synchronized(entries) {
+            entries.put(key, new Cached(result, ttl > 0 ? System.currentTimeMillis()+ttl : Long.MAX_VALUE));
+        }
+    }
+
+    public void Clear() {
+        synchronized(entries) {
+            entries.clear();
+        }
+    }
+
+    public int getSize() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /*
+    * ===========================    ENTRIES    ================================
+    */
+
+    private static final class Cached {
+        private final ParseResult result;
+        private final long expiresAt;
+
+        private Cached(ParseResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+
+    private static final class Key {
+        private final String source;
+        private final String query;
+        private final String section;
+
+        private Key(String source, String query, String section) {
+            this.source = source;
+            this.query = query;
+            // the same section may come with or without the menu mark
+            String wanted = section != null ? ParserWithMenu.Unmark(section).trim() : SectionParser.ALL_SECTIONS;
+            this.section = wanted.equalsIgnoreCase(SectionParser.ALL_SECTIONS) ? ParserWithMenu.ALL_OPTIONS_MESSAGE : wanted;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return Objects.equals(source, key.source) && Objects.equals(query, key.query) && section.equals(key.section);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, query, section);
+        }
+    }
+
+}
@@ -0,0 +1,347 @@
+package org.scrapper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+* Name: ScrapServer
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Embedded HTTP service over a parser, on the server of the JDK.
+*   GET /sections?q=QUERY        section titles of the page
+*   GET /section?q=QUERY&s=NAME  content of the section (s defaults to all)
+*   GET /health                  state of the queue and workers
+*   GET /metrics                 Metrics.snapshot()
+* The server threads only admit the requests; the scraps run on a bounded
+* pool behind a bounded queue. A full queue answers 503 at once, and a
+* request not answered within the timeout gets 504, counted from admission.
+*/
+public final class ScrapServer implements AutoCloseable{
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_WORKERS = 16;
+    public static final int DEFAULT_QUEUE = 256; // requests waiting for a worker
+    public static final long DEFAULT_TIMEOUT = 30000; // milliseconds
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final ParserWithMenu parser;
+    private final long timeout;
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService timer;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * Binds the server; it answers only after Start.
+     *
+     * @param parser
+     * @param port 0 takes any free port
+     * @param workers scraps running at the same time
+     * @param queue requests admitted while all workers are busy
+     * @param timeout milliseconds from admission to answer
+     * @throws IOException if the port cannot be bound
+     */
+    public ScrapServer(ParserWithMenu parser, int port, int workers, int queue, long timeout) throws IOException {
+        if(parser == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        if(workers < 1 || queue < 1 || timeout <= 0)
+            throw new IllegalArgumentException("Workers, queue and timeout must be positive.");
+        this.parser = parser;
+        this.timeout = timeout;
+        this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), Threads("scrapper-http"), new ThreadPoolExecutor.AbortPolicy());
+        this.timer = Executors.newSingleThreadScheduledExecutor(Threads("scrapper-http-timer"));
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(Executors.newFixedThreadPool(2, Threads("scrapper-http-accept")));
+
+        server.createContext("/sections", (HttpExchange exchange) -> Admit(exchange, "sections", () -> Sections(exchange)));
+        server.createContext("/section", (HttpExchange exchange) -> Admit(exchange, "section", () -> Section(exchange)));
+        server.createContext("/health", (HttpExchange exchange) -> Send(exchange, 200, Health(), null));
+        server.createContext("/metrics", (HttpExchange exchange) -> Send(exchange, 200, Snapshot(), null));
+    }
+
+    public ScrapServer Start() {
+        server.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /*
+    * ===========================    HANDLERS    ===============================
+    */
+
+    /**
+     * Work of a request; gives the status and the JSON body.
+     */
+    private interface Handler {
+        public Answer Handle() throws Exception;
+    }
+
+    private static final class Answer {
+        private final int status;
+        private final String body;
+
+        private Answer(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Queues the request for a worker and returns at once; the answer is
+     * sent by the worker or by the timer, whichever comes first. The timer
+     * only gives up the waiting request: a scrap still queued is dropped,
+     * but a running one is never interrupted, as the caches may share its
+     * load with other requests of the same page.
+     */
+    private void Admit(HttpExchange exchange, String name, Handler handler) {
+        if(!exchange.getRequestMethod().equals("GET")) {
+            Send(exchange, 405, Error("Only GET is allowed."), null);
+            return;
+        }
+        Metrics.count("http.requests");
+        long started = System.nanoTime();
+        AtomicBoolean answered = new AtomicBoolean();
+        AtomicReference<ScheduledFuture<?>> expiry = new AtomicReference<>();
+        Future<?> task;
+        try {
+            task = workers.submit(() -> {
+                Answer answer;
+                try {
+                    answer = handler.Handle();
+                }catch(Exception ex) {
+                    answer = new Answer(Status(ex), Error(BatchRunner.Message(ex)));
+                }
+                if(answered.compareAndSet(false, true)) {
+                    ScheduledFuture<?> pending = expiry.get();
+                    if(pending != null)
+                        pending.cancel(false);
+                    Metrics.time("http."+name, started);
+                    Send(exchange, answer.status, answer.body, null);
+                }
+            });
+        }catch(RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            Metrics.count("http.rejected");
+            Send(exchange, 503, Error("Too many requests queued."), "1");
+            return;
+        }
+
+        expiry.set(timer.schedule(() -> {
+            if(answered.compareAndSet(false, true)) {
+                workers.remove((Runnable) task); // frees its place in the queue; a running scrap ends by itself and its answer is dropped
+                timeouts.incrementAndGet();
+                Metrics.count("http.timeouts");
+                Send(exchange, 504, Error("Timed out after "+timeout+"ms."), null);
+            }
+        }, timeout, TimeUnit.MILLISECONDS));
+        if(answered.get())
+            expiry.get().cancel(false); // answered before the timer was set
+    }
+
+    private Answer Sections(HttpExchange exchange) {
+        String query = Parameter(exchange, "q");
+        if(query == null || query.isEmpty())
+            return new Answer(400, Error("Missing q."));
+        List<String> sections = parser.Sections(query);
+        StringBuilder body = new StringBuilder("{\"query\":");
+        BatchRunner.Json(body, query).append(",\"sections\":[");
+        for(int i = 0; i < sections.size(); i++) {
+            if(i > 0)
+                body.append(',');
+            BatchRunner.Json(body, sections.get(i));
+        }
+        return new Answer(200, body.append("]}").toString());
+    }
+
+    private Answer Section(HttpExchange exchange) {
+        String query = Parameter(exchange, "q");
+        if(query == null || query.isEmpty())
+            return new Answer(400, Error("Missing q."));
+        String section = Parameter(exchange, "s");
+        ParseResult result = parser.Parse(query, section == null || section.isEmpty() ? SectionParser.ALL_SECTIONS : section);
+        StringBuilder body = new StringBuilder(64+result.getContent().length()).append("{\"query\":");
+        BatchRunner.Json(body, result.getQuery()).append(",\"section\":");
+        BatchRunner.Json(body, result.getSection()).append(",\"title\":");
+        BatchRunner.Json(body, result.getTitle()).append(",\"content\":");
+        BatchRunner.Json(body, result.getContent());
+        return new Answer(200, body.append('}').toString());
+    }
+
+    private String Health() {
+        return "{\"status\":\"ok\",\"active\":"+workers.getActiveCount()
+                +",\"queued\":"+workers.getQueue().size()
+                +",\"capacity\":"+(workers.getQueue().size()+workers.getQueue().remainingCapacity())
+                +",\"completed\":"+workers.getCompletedTaskCount()
+                +",\"rejected\":"+rejected.get()
+                +",\"timeouts\":"+timeouts.get()+"}";
+    }
+
+    private static String Snapshot() {
+        StringBuilder body = new StringBuilder("{");
+        for(Map.Entry<String, Number> value : Metrics.snapshot().entrySet()) {
+            if(body.length() > 1)
+                body.append(',');
+            BatchRunner.Json(body, value.getKey()).append(':').append(value.getValue());
+        }
+        return body.append('}').toString();
+    }
+
+    /*
+    * ============================    HELPERS    ===============================
+    */
+
+    /**
+     * Maps a scrap error to the HTTP status: a missing page or section is
+     * 404, a failing source is 502, anything else is 500.
+     */
+    private static int Status(Throwable error) {
+        for(Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if(cause instanceof FetchException)
+                return ((FetchException) cause).getStatus() == 404 ? 404 : 502;
+        }
+        for(Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if(cause.getMessage() != null && cause.getMessage().endsWith(ParserWithMenu.NOT_FOUND_MESSAGE))
+                return 404;
+            if(cause instanceof IOException)
+                return 502;
+        }
+        return 500;
+    }
+
+    private static String Error(String message) {
+        return BatchRunner.Json(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    private static String Parameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if(query == null)
+            return null;
+        for(String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            try {
+                if(URLDecoder.decode(key, "UTF-8").equals(name))
+                    return equals < 0 ? "" : URLDecoder.decode(pair.substring(equals+1), "UTF-8");
+            }catch(UnsupportedEncodingException | IllegalArgumentException ignored) {
+                // malformed, skipped
+            }
+        }
+        return null;
+    }
+
+    private static void Send(HttpExchange exchange, int status, String body, String retryAfter) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            if(retryAfter != null)
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }catch(IOException ex) {
+            Log.debug(() -> "> Client gone: "+ex.getMessage());
+        }finally {
+            exchange.close();
+        }
+    }
+
+    private static ThreadFactory Threads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return (Runnable task) -> {
+            Thread thread = new Thread(task, name+"-"+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    /*
+    * =============================    MAIN    =================================
+    */
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int port = DEFAULT_PORT, workers = DEFAULT_WORKERS, queue = DEFAULT_QUEUE;
+        long timeout = DEFAULT_TIMEOUT;
+        String site = null, profiles = null;
+        try {
+            for(int i = 0; i+1 < args.length; i += 2) {
+                switch(args[i]) {
+                    case "--port": port = Integer.parseInt(args[i+1]); break;
+                    case "--workers": workers = Integer.parseInt(args[i+1]); break;
+                    case "--queue": queue = Integer.parseInt(args[i+1]); break;
+                    case "--timeout": timeout = Long.parseLong(args[i+1]); break;
+                    case "--site": site = args[i+1]; break;
+                    case "--profiles": profiles = args[i+1]; break;
+                    default: throw new IllegalArgumentException("Unknown option: "+args[i]);
+                }
+            }
+            if(args.length % 2 != 0)
+                throw new IllegalArgumentException("Missing value of "+args[args.length-1]);
+        }catch(IllegalArgumentException ex) {
+            System.err.println(ex.getMessage()+"\nUsage: ScrapServer [--port N] [--workers N] [--queue N] [--timeout MS] [--site NAME] [--profiles FILE]");
+            System.exit(2);
+        }
+
+        try {
+            ParserWithMenu parser = BatchRunner.Parser(site, profiles);
+            if(parser.getCache() == null)
+                parser.setCache(new ResultCache(SiteRouter.DEFAULT_CACHE_ENTRIES, SiteRouter.DEFAULT_CACHE_TTL));
+            ScrapServer service = new ScrapServer(parser, port, workers, queue, timeout).Start();
+            Runtime.getRuntime().addShutdownHook(new Thread(service::close, "scrapper-http-stop"));
+            int bound = service.getPort();
+            Log.info(() -> "> Listening on port "+bound+".");
+            Thread.currentThread().join(); // the server threads are daemons
+        }catch(IOException | IllegalArgumentException ex) {
+            Log.error(() -> "Server error: "+BatchRunner.Message(ex));
+            Log.flush();
+            System.exit(1);
+        }catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.scrapper;
+
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+
+/**
+* Name: SectionExtractor
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Gets the text of a section straight from the DOM. It starts
+* at the heading of the section and walks its following siblings until the
+* next heading of the same or a higher level, without serializing anything;
+* the text nodes go straight into a TextNormalizer.
+*/
+public final class SectionExtractor {
+
+    private static final int NOT_A_HEADING = Integer.MAX_VALUE;
+    private static final int ANY_HEADING = 7; // the level of a bare headline, so any heading stops
+
+    private SectionExtractor() { }
+
+    /**
+     * Gets the text of the section.
+     *
+     * @param headline the title element of the section, like span.mw-headline
+     * @param unnecessary elements to skip, like the edit links
+     * @return clean text, like Builder.clear
+     */
+    public static String Extract(Element headline, Predicate<Element> unnecessary) {
+        Element boundary = Boundary(headline);
+        return Extract(boundary, Level(boundary), null, unnecessary);
+    }
+
+    /**
+     * Gets the text of an indexed section, stopping at the section that ends it.
+     *
+     * @param section
+     * @param unnecessary elements to skip, like the edit links
+     * @return clean text, like Builder.clear
+     */
+    public static String Extract(SectionIndex.Section section, Predicate<Element> unnecessary) {
+        SectionIndex.Section end = section.getEnd();
+        return Extract(section.getBoundary(), section.getLevel(), end != null ? end.getBoundary() : null, unnecessary);
+    }
+
+    /**
+     * Gets the own text of an indexed section, without its subsections:
+     * it stops at the next heading of any level.
+     *
+     * @param section
+     * @param unnecessary elements to skip, like the edit links
+     * @return clean text, like Builder.clear
+     */
+    public static String ExtractOwn(SectionIndex.Section section, Predicate<Element> unnecessary) {
+        return Extract(section.getBoundary(), ANY_HEADING, null, unnecessary);
+    }
+
+    /**
+     * Gets the lead of the page: the text of the content root before the
+     * first section, which may be nested in a wrapper of the root.
+     *
+     * @param root the content root, like #mw-content-text
+     * @param first boundary of the first section, null if the page has none
+     * @param unnecessary elements to skip, like the edit links
+     * @return clean text, like Builder.clear
+     */
+    public static String ExtractLead(Element root, Element first, Predicate<Element> unnecessary) {
+        TextNormalizer out = new TextNormalizer();
+        Lead(root, first, out, unnecessary);
+        return out.toString();
+    }
+
+    /**
+     * Appends the nodes up to the stop, going into the node that holds it.
+     *
+     * @return true when the stop was reached
+     */
+    private static boolean Lead(Element parent, Element stop, TextNormalizer out, Predicate<Element> unnecessary) {
+        for(Node node : parent.childNodes()) {
+            if(node == stop)
+                return true;
+            if(stop != null && node instanceof Element && IsAncestor((Element) node, stop))
+                return unnecessary.test((Element) node) || Lead((Element) node, stop, out, unnecessary);
+            out.Append(node, unnecessary);
+        }
+        return false;
+    }
+
+    private static boolean IsAncestor(Element ancestor, Element element) {
+        for(Element parent = element.parent(); parent != null; parent = parent.parent()) {
+            if(parent == ancestor)
+                return true;
+        }
+        return false;
+    }
+
+    private static String Extract(Element boundary, int level, Element stop, Predicate<Element> unnecessary) {
+        TextNormalizer out = new TextNormalizer();
+        for(Node node = boundary.nextSibling(); node != null; node = node.nextSibling()) {
+            if(node == stop || node instanceof Element && Level((Element) node) <= level)
+                break;
+            out.Append(node, unnecessary);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets the node whose siblings make up the section: the h1-h6 around
+     * the headline, or the wrapper that newer layouts put around it.
+     *
+     * @param headline
+     * @return
+     */
+    static Element Boundary(Element headline) {
+        Element boundary = headline;
+        for(Element parent = headline.parent(); parent != null; parent = parent.parent()) {
+            if(HeadingLevel(parent) != NOT_A_HEADING) {
+                boundary = parent;
+                break;
+            }
+        }
+        Element wrapper = boundary.parent();
+        if(wrapper != null && wrapper.hasClass("mw-heading"))
+            boundary = wrapper;
+        return boundary;
+    }
+
+    /**
+     * Gets the heading level of an element; a headline outside h1-h6 counts
+     * as the lowest level, so only real headings end its section.
+     *
+     * @param element
+     * @return
+     */
+    static int Level(Element element) {
+        int level = HeadingLevel(element);
+        if(level != NOT_A_HEADING)
+            return level;
+        if(element.hasClass("mw-heading")) {
+            for(Element child : element.children()) {
+                level = HeadingLevel(child);
+                if(level != NOT_A_HEADING)
+                    return level;
+            }
+        }
+        if(element.hasClass("mw-headline"))
+            return ANY_HEADING;
+        return NOT_A_HEADING;
+    }
+
+    private static int HeadingLevel(Element element) {
+        String name = element.tagName();
+        if(name.length() == 2 && name.charAt(0) == 'h' && name.charAt(1) >= '1' && name.charAt(1) <= '6')
+            return name.charAt(1)-'0';
+        return NOT_A_HEADING;
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.scrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+/**
+* Name: SectionIndex
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Headings of a page, built in one pass per document. Gives
+* the options, the next section and the bounds of a section by lookup,
+* without parsing any heading again.
+*/
+public final class SectionIndex {
+
+    /**
+     * One heading of the page.
+     */
+    public static final class Section {
+        private final int position;
+        private final String title;
+        private final int level;
+        private final Element headline; // the title element, like span.mw-headline
+        private final Element boundary; // the heading whose siblings make up the section
+        private Section end = null; // next section of the same or a higher level
+
+        private Section(int position, String title, Element headline) {
+            this.position = position;
+            this.title = title;
+            this.headline = headline;
+            this.boundary = SectionExtractor.Boundary(headline);
+            this.level = SectionExtractor.Level(boundary);
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public Element getHeadline() {
+            return headline;
+        }
+
+        public Element getBoundary() {
+            return boundary;
+        }
+
+        /**
+         * Gets the section that ends this one, null if it goes to the end of the page.
+         *
+         * @return
+         */
+        public Section getEnd() {
+            return end;
+        }
+    }
+
+    private final List<Section> sections;
+    private final Map<String, Section> titles;
+
+    private SectionIndex(List<Section> sections) {
+        this.sections = Collections.unmodifiableList(sections);
+        this.titles = new HashMap<>(sections.size()*2);
+        for(Section section : sections)
+            titles.putIfAbsent(section.title, section);
+    }
+
+    /**
+     * Builds the index of the headings inside the content of the page.
+     *
+     * @param doc
+     * @param contentTag
+     * @param mainTag
+     * @return
+     */
+    public static SectionIndex Build(Document doc, String contentTag, String mainTag) {
+        return Build(doc, Selectors.Query(contentTag), Selectors.Query(mainTag));
+    }
+
+    /**
+     * Builds the index with selectors compiled beforehand.
+     *
+     * @param doc
+     * @param contentTag
+     * @param mainTag
+     * @return
+     */
+    public static SectionIndex Build(Document doc, Selectors.Query contentTag, Selectors.Query mainTag) {
+        Elements headlines = mainTag.Select(contentTag.Select(doc));
+        if(headlines.isEmpty())
+            headlines = mainTag.Select(doc);
+
+        List<Section> sections = new ArrayList<>(headlines.size());
+        List<Section> open = new ArrayList<>(); // sections still waiting for their end
+        for(Element headline : headlines) {
+            Section section = new Section(sections.size(), Title(headline.text()), headline);
+            for(int i = open.size()-1; i >= 0 && open.get(i).level >= section.level; i--)
+                open.remove(i).end = section;
+            open.add(section);
+            sections.add(section);
+        }
+        return new SectionIndex(sections);
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * Gets the section by title.
+     *
+     * @param title
+     * @return null if not found
+     */
+    public Section Get(String title) {
+        return title != null ? titles.get(title.trim()) : null;
+    }
+
+    /**
+     * Gets the section that follows, at any level.
+     *
+     * @param section
+     * @return null if it is the last one
+     */
+    public Section Next(Section section) {
+        int next = section.position+1;
+        return next < sections.size() ? sections.get(next) : null;
+    }
+
+    /**
+     * Gets the titles, in the page order.
+     *
+     * @return
+     */
+    public List<String> Titles() {
+        List<String> list = new ArrayList<>(sections.size());
+        for(Section section : sections)
+            list.add(section.title);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Removes the brackets and their contents from a title.
+     */
+    static String Title(String text) {
+        StringBuilder title = new StringBuilder(text.length());
+        int depth = 0;
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '[')
+                depth++;
+            else if(c == ']' && depth > 0)
+                depth--;
+            else if(depth == 0)
+                title.append(c);
+        }
+        return title.toString().trim();
+    }
+
+}
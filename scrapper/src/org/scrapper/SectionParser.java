@@ -0,0 +1,27 @@
+package org.scrapper;
+
+import java.util.List;
+
+/**
+* Name: SectionParser
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Stateless parser's interface. Implementations keep no state
+* between calls, so one instance can be shared by many threads.
+*/
+public interface SectionParser {
+
+    /**
+     * Section selector that brings up all content of the page.
+     */
+    public String ALL_SECTIONS = "all";
+
+    public ParseResult Parse(String query, String section);
+    public List<String> Sections(String query);
+
+    /**
+     * Gets only the text of the section, read while the page arrives,
+     * without building the whole document.
+     */
+    public String Stream(String query, String section);
+}
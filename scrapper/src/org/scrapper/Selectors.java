@@ -0,0 +1,423 @@
+package org.scrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+
+/**
+* Name: Selectors
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Compiles selectors, like span.mw-headline or #content > p,
+* into Jsoup evaluators once, so they are not parsed again on each select.
+* Covers tags, ids, classes, attributes, the descendant and child
+* combinators and groups; other selectors fall back to Jsoup.
+*/
+public final class Selectors {
+
+    private Selectors() { }
+
+    /**
+     * A selector compiled once, used many times.
+     */
+    public static final class Query {
+        private final String query;
+        private final Evaluator evaluator; // null if Jsoup must parse the query
+        private final ThreadLocal<Matched> matched = new ThreadLocal<>(); // used only without the evaluator
+
+        private Query(String query, Evaluator evaluator) {
+            this.query = query;
+            this.evaluator = evaluator;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * Tells if the query was compiled here, not left to Jsoup.
+         *
+         * @return
+         */
+        public boolean isCompiled() {
+            return evaluator != null;
+        }
+
+        /**
+         * Selects the matching elements under the root, the root included.
+         *
+         * @param root
+         * @return
+         */
+        public Elements Select(Element root) {
+            return evaluator != null ? Collector.collect(evaluator, root) : root.select(query);
+        }
+
+        /**
+         * Selects the matching elements under each root, without repeats.
+         *
+         * @param roots
+         * @return
+         */
+        public Elements Select(Elements roots) {
+            if(evaluator == null)
+                return roots.select(query);
+            if(roots.size() == 1)
+                return Select(roots.get(0));
+            Set<Element> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Elements elements = new Elements();
+            for(Element root : roots) {
+                for(Element element : Collector.collect(evaluator, root)) {
+                    if(seen.add(element))
+                        elements.add(element);
+                }
+            }
+            return elements;
+        }
+
+        /**
+         * Tells if the element matches, in the whole tree it belongs to.
+         * A compiled query looks only at the element and its ancestors. A
+         * query left to Jsoup selects the tree once per thread and keeps the
+         * matches until another tree comes, so a walk over one page does not
+         * select it again for each element.
+         *
+         * @param element
+         * @return
+         */
+        public boolean Matches(Element element) {
+            if(evaluator != null)
+                return evaluator.matches(null, element); // no evaluator compiled here uses the root
+            Element root = element;
+            while(root.parent() != null)
+                root = root.parent();
+            Matched last = matched.get();
+            if(last == null || last.root != root) {
+                last = new Matched(root, root.select(query));
+                matched.set(last);
+            }
+            return last.elements.contains(element);
+        }
+
+        @Override
+        public String toString() {
+            return query;
+        }
+    }
+
+    /**
+     * Matches of a query left to Jsoup in one tree, by identity.
+     */
+    private static final class Matched {
+        private final Element root;
+        private final Set<Element> elements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Matched(Element root, Collection<Element> elements) {
+            this.root = root;
+            this.elements.addAll(elements);
+        }
+    }
+
+    /**
+     * Compiles the selector, falling back to Jsoup if it is not covered here.
+     *
+     * @param query
+     * @return
+     */
+    public static Query Query(String query) {
+        if(query == null)
+            throw new NullPointerException("Selector must not be null.");
+        return new Query(query, Parse(query));
+    }
+
+    /**
+     * Compiles a selector: groups of compound selectors joined by the
+     * descendant or the child combinator.
+     *
+     * @param query
+     * @return null if the selector is not covered here
+     */
+    public static Evaluator Parse(String query) {
+        List<Evaluator> groups = new ArrayList<>();
+        for(String group : Split(query, ',')) {
+            Evaluator evaluator = Chain(group.trim());
+            if(evaluator == null)
+                return null;
+            groups.add(evaluator);
+        }
+        if(groups.isEmpty())
+            return null;
+        return groups.size() == 1 ? groups.get(0) : new Any(groups);
+    }
+
+    /**
+     * Compiles a compound selector made of an optional tag, ids, classes and
+     * attributes. It needs no other element, so it works on a lone element.
+     *
+     * @param query
+     * @return null if the selector is not a simple one
+     */
+    public static Evaluator Compile(String query) {
+        String selector = query.trim();
+        if(selector.isEmpty())
+            return null;
+
+        List<Evaluator> parts = new ArrayList<>();
+        int i = 0;
+        while(i < selector.length()) {
+            char kind = selector.charAt(i);
+            if(kind == '[') {
+                int end = selector.indexOf(']', i);
+                if(end < 0)
+                    return null;
+                Evaluator attribute = Attribute(selector.substring(i+1, end));
+                if(attribute == null)
+                    return null;
+                parts.add(attribute);
+                i = end+1;
+                continue;
+            }
+            if(kind == '*' && i == 0) {
+                parts.add(new Evaluator.AllElements());
+                i++;
+                continue;
+            }
+            int start = kind == '#' || kind == '.' ? i+1 : i;
+            int end = start;
+            while(end < selector.length() && IsNameChar(selector.charAt(end)))
+                end++;
+            if(end == start)
+                return null; // combinators and pseudo selectors are not simple
+            String name = selector.substring(start, end);
+            if(kind == '#')
+                parts.add(new Evaluator.Id(name));
+            else if(kind == '.')
+                parts.add(new Evaluator.Class(name));
+            else if(i == 0)
+                parts.add(new Evaluator.Tag(name.toLowerCase(Locale.ROOT)));
+            else
+                return null;
+            i = end;
+        }
+        return parts.size() == 1 ? parts.get(0) : new All(parts);
+    }
+
+    /**
+     * Compiles compound selectors joined by combinators, from left to right.
+     */
+    private static Evaluator Chain(String selector) {
+        Evaluator chain = null;
+        char combinator = ' ';
+        int i = 0;
+        while(i < selector.length()) {
+            char c = selector.charAt(i);
+            if(Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if(c == '>') {
+                if(chain == null || combinator == '>')
+                    return null;
+                combinator = '>';
+                i++;
+                continue;
+            }
+            int end = i;
+            int brackets = 0;
+            while(end < selector.length()) {
+                char e = selector.charAt(end);
+                if(e == '[')
+                    brackets++;
+                else if(e == ']')
+                    brackets--;
+                else if(brackets == 0 && (Character.isWhitespace(e) || e == '>'))
+                    break;
+                end++;
+            }
+            Evaluator compound = Compile(selector.substring(i, end));
+            if(compound == null)
+                return null;
+            if(chain == null)
+                chain = compound;
+            else
+                chain = combinator == '>' ? new Child(chain, compound) : new Descendant(chain, compound);
+            combinator = ' ';
+            i = end;
+        }
+        return combinator == '>' ? null : chain;
+    }
+
+    /**
+     * Compiles [name] and [name=value], the value quoted or not.
+     */
+    private static Evaluator Attribute(String attribute) {
+        int equals = attribute.indexOf('=');
+        String name = (equals < 0 ? attribute : attribute.substring(0, equals)).trim();
+        if(name.isEmpty())
+            return null;
+        for(int i = 0; i < name.length(); i++) {
+            if(!IsNameChar(name.charAt(i)))
+                return null; // [a^=b], [a~=b] and the others are left to Jsoup
+        }
+        if(equals < 0)
+            return new Evaluator.Attribute(name);
+        String value = attribute.substring(equals+1).trim();
+        if(value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+                && value.charAt(value.length()-1) == value.charAt(0))
+            value = value.substring(1, value.length()-1);
+        return value.isEmpty() ? null : new Evaluator.AttributeWithValue(name, value);
+    }
+
+    /**
+     * Splits by the separator, out of brackets and quotes.
+     */
+    private static List<String> Split(String query, char separator) {
+        List<String> parts = new ArrayList<>();
+        int brackets = 0, start = 0;
+        char quote = 0;
+        for(int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if(quote != 0) {
+                if(c == quote)
+                    quote = 0;
+            }else if(c == '"' || c == '\'') {
+                quote = c;
+            }else if(c == '[') {
+                brackets++;
+            }else if(c == ']') {
+                brackets--;
+            }else if(c == separator && brackets == 0) {
+                parts.add(query.substring(start, i));
+                start = i+1;
+            }
+        }
+        parts.add(query.substring(start));
+        return parts;
+    }
+
+    private static boolean IsNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+
+    /*
+    * ==========================    EVALUATORS    ==============================
+    */
+
+    /**
+     * Matches when all parts match.
+     */
+    private static final class All extends Evaluator {
+        private final Evaluator[] parts;
+
+        private All(List<Evaluator> parts) {
+            this.parts = parts.toArray(new Evaluator[parts.size()]);
+        }
+
+        @Override
+        public boolean matches(Element root, Element element) {
+            for(Evaluator part : parts) {
+                if(!part.matches(root, element))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder query = new StringBuilder();
+            for(Evaluator part : parts)
+                query.append(part);
+            return query.toString();
+        }
+    }
+
+    /**
+     * Matches when any group matches.
+     */
+    private static final class Any extends Evaluator {
+        private final Evaluator[] groups;
+
+        private Any(List<Evaluator> groups) {
+            this.groups = groups.toArray(new Evaluator[groups.size()]);
+        }
+
+        @Override
+        public boolean matches(Element root, Element element) {
+            for(Evaluator group : groups) {
+                if(group.matches(root, element))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder query = new StringBuilder();
+            for(Evaluator group : groups)
+                query.append(query.length() > 0 ? ", " : "").append(group);
+            return query.toString();
+        }
+    }
+
+    /**
+     * Matches "ancestor element", the ancestor up to the root.
+     */
+    private static final class Descendant extends Evaluator {
+        private final Evaluator ancestor, self;
+
+        private Descendant(Evaluator ancestor, Evaluator self) {
+            this.ancestor = ancestor;
+            this.self = self;
+        }
+
+        @Override
+        public boolean matches(Element root, Element element) {
+            if(element == root || !self.matches(root, element))
+                return false;
+            for(Element parent = element.parent(); parent != null; parent = parent.parent()) {
+                if(ancestor.matches(root, parent))
+                    return true;
+                if(parent == root)
+                    break;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return ancestor+" "+self;
+        }
+    }
+
+    /**
+     * Matches "parent > element".
+     */
+    private static final class Child extends Evaluator {
+        private final Evaluator parent, self;
+
+        private Child(Evaluator parent, Evaluator self) {
+            this.parent = parent;
+            this.self = self;
+        }
+
+        @Override
+        public boolean matches(Element root, Element element) {
+            Element up = element.parent();
+            return element != root && up != null && self.matches(root, element) && parent.matches(root, up);
+        }
+
+        @Override
+        public String toString() {
+            return parent+" > "+self;
+        }
+    }
+
+}
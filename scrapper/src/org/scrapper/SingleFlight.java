@@ -0,0 +1,93 @@
+package org.scrapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Name: SingleFlight
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Coalesces identical loads. While a key is being loaded, the
+* other callers of the same key wait for that load and share its value,
+* so a burst of requests for one page costs one download and one parse.
+* Nothing is kept after the load; the value must not be changed by callers.
+*/
+public final class SingleFlight<V> {
+
+    private final ConcurrentHashMap<Object, FutureTask<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * Loads the value of the key, or waits for the load already running.
+     *
+     * @param key compared by equals, like a url or a list of its parts
+     * @param loader
+     * @return
+     * @throws IOException the loader error
+     */
+    public V Get(Object key, Callable<V> loader) throws IOException {
+        FutureTask<V> task = new FutureTask<>(loader);
+        FutureTask<V> running = flights.putIfAbsent(key, task);
+        if(running == null) {
+            running = task;
+            loads.incrementAndGet();
+            try {
+                task.run();
+            }finally {
+                flights.remove(key, task);
+            }
+        }else {
+            shared.incrementAndGet();
+        }
+
+        try {
+            return running.get();
+        }catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for "+key);
+        }catch(ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException)
+                throw (IOException) cause;
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if(cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Gets the loads that really ran.
+     *
+     * @return
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /**
+     * Gets the callers served by a load of another caller.
+     *
+     * @return
+     */
+    public long getShared() {
+        return shared.get();
+    }
+
+    /**
+     * Gets the loads running now.
+     *
+     * @return
+     */
+    public int getSize() {
+        return flights.size();
+    }
+
+}
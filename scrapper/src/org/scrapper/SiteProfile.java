@@ -0,0 +1,225 @@
+package org.scrapper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.nodes.Element;
+
+/**
+* Name: SiteProfile
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Parser of a site described in a profiles file, instead of a
+* ParserWithMenu subclass. The selectors and the regex are compiled once,
+* when the file is loaded, so many sites can share one process.
+*
+* Each site is a group of keys starting with its name:
+*
+*   wikipedia.source = https://pt.wikipedia.org/wiki/
+*   wikipedia.heading = span.mw-headline
+*   wikipedia.content = #mw-content-text
+*   wikipedia.tag = span                      (optional, the heading tag)
+*   wikipedia.remove.1 = selector:.mw-editsection
+*   wikipedia.remove.2 = selector:sup.reference
+*   wikipedia.remove.3 = regex:\\s*\\[carece de fontes\\]
+*
+* The "selector:" rules leave the matching elements out of the content; the
+* "regex:" rules are removed from the extracted text, in RemoveUnnecessaryThings,
+* so they match the text of the page and not its markup.
+*/
+public final class SiteProfile extends ParserWithMenu {
+
+    public static final String DEFAULTS = "profiles.properties"; // bundled with the classes
+
+    private static final String SELECTOR_RULE = "selector:";
+    private static final String REGEX_RULE = "regex:";
+    private static final Pattern HEADING_TAG = Pattern.compile("^\\s*([A-Za-z][A-Za-z0-9]*)");
+
+    private final String name;
+    private final String profileSource;
+    private final String profileTag;
+    private final String heading;
+    private final String content;
+    private final List<Selectors.Query> removedElements;
+    private final List<Pattern> removedText;
+
+    private SiteProfile(String name, String source, String tag, String heading, String content,
+            List<Selectors.Query> removedElements, List<Pattern> removedText) {
+        this.name = name;
+        this.profileSource = source;
+        this.profileTag = tag;
+        this.heading = heading;
+        this.content = content;
+        this.removedElements = Collections.unmodifiableList(removedElements);
+        this.removedText = Collections.unmodifiableList(removedText);
+        initTagsAndSource();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Selectors.Query> getRemovedElements() {
+        return removedElements;
+    }
+
+    public List<Pattern> getRemovedText() {
+        return removedText;
+    }
+
+    @Override
+    public void initTagsAndSource() {
+        setSource(profileSource);
+        setTag(profileTag);
+        setMainTag(heading);
+        setContentTag(content);
+    }
+
+    /**
+     * Removes the text matched by the regex rules, in the order of the rules.
+     */
+    @Override
+    public String RemoveUnnecessaryThings(String code) {
+        for(Pattern pattern : removedText)
+            code = pattern.matcher(code).replaceAll("");
+        return code;
+    }
+
+    @Override
+    public boolean IsUnnecessary(Element element) {
+        for(Selectors.Query query : removedElements) {
+            if(query.Matches(element))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return name+" ("+profileSource+")";
+    }
+
+    /*
+    * ============================    LOADING    ===============================
+    */
+
+    /**
+     * Loads the profiles bundled with the classes.
+     *
+     * @return
+     * @throws IOException
+     */
+    public static Map<String, SiteProfile> Defaults() throws IOException {
+        try(InputStream in = SiteProfile.class.getResourceAsStream(DEFAULTS)) {
+            if(in == null)
+                throw new IOException("Profiles not found: "+DEFAULTS);
+            return Load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Loads the profiles of a file, in UTF-8.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static Map<String, SiteProfile> Load(File file) throws IOException {
+        try(Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return Load(reader);
+        }
+    }
+
+    /**
+     * Loads the profiles, in the properties format.
+     *
+     * @param reader
+     * @return profiles by name, in the order of the names
+     * @throws IOException
+     */
+    public static Map<String, SiteProfile> Load(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        return Load(properties);
+    }
+
+    /**
+     * Compiles the profiles. A profile is every name with a source key.
+     *
+     * @param properties
+     * @return profiles by name, in the order of the names
+     * @throws IllegalArgumentException if a profile is incomplete or a rule does not compile
+     */
+    public static Map<String, SiteProfile> Load(Properties properties) {
+        Map<String, SiteProfile> profiles = new TreeMap<>();
+        for(String key : properties.stringPropertyNames()) {
+            if(key.endsWith(".source")) {
+                String name = key.substring(0, key.length()-".source".length());
+                profiles.put(name, Compile(name, properties));
+            }
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(profiles));
+    }
+
+    private static SiteProfile Compile(String name, Properties properties) {
+        String source = Required(name, "source", properties);
+        String heading = Required(name, "heading", properties);
+        String content = Required(name, "content", properties);
+        String tag = properties.getProperty(name+".tag", HeadingTag(heading)).trim();
+
+        // the rules run in the order of their numbers
+        Map<Integer, String> rules = new TreeMap<>();
+        String prefix = name+".remove.";
+        for(String key : properties.stringPropertyNames()) {
+            if(key.startsWith(prefix)) {
+                try {
+                    rules.put(Integer.valueOf(key.substring(prefix.length())), properties.getProperty(key).trim());
+                }catch(NumberFormatException ex) {
+                    throw new IllegalArgumentException("Profile "+name+": rule number expected in "+key);
+                }
+            }
+        }
+
+        List<Selectors.Query> removedElements = new ArrayList<>();
+        List<Pattern> removedText = new ArrayList<>();
+        for(String rule : rules.values()) {
+            if(rule.startsWith(SELECTOR_RULE))
+                removedElements.add(Selectors.Query(rule.substring(SELECTOR_RULE.length()).trim()));
+            else if(rule.startsWith(REGEX_RULE))
+                removedText.add(Pattern.compile(rule.substring(REGEX_RULE.length()).trim(), Pattern.DOTALL));
+            else
+                throw new IllegalArgumentException("Profile "+name+": rule must start with "+SELECTOR_RULE+" or "+REGEX_RULE+" "+rule);
+        }
+
+        return new SiteProfile(name, source, tag, heading.trim(), content.trim(), removedElements, removedText);
+    }
+
+    private static String Required(String name, String key, Properties properties) {
+        String value = properties.getProperty(name+"."+key);
+        if(value == null || value.trim().isEmpty())
+            throw new IllegalArgumentException("Profile "+name+": "+key+" is required.");
+        return value.trim();
+    }
+
+    /**
+     * Gets the tag of the heading selector, like span of span.mw-headline.
+     */
+    private static String HeadingTag(String heading) {
+        Matcher tag = HEADING_TAG.matcher(heading);
+        return tag.find() ? tag.group(1) : "span";
+    }
+
+}
@@ -0,0 +1,282 @@
+package org.scrapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+* Name: SiteRouter
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Sends each query to the parser of its site. Every site has
+* its own threads, concurrency limit, fetcher and result cache, so a slow
+* site only queues its own queries and never holds the others back. The
+* queue of each site is bounded: when it is full, the query waits for room
+* in the thread that submits it.
+*/
+public final class SiteRouter implements AutoCloseable{
+
+    public static final int DEFAULT_CACHE_ENTRIES = 256;
+    public static final long DEFAULT_CACHE_TTL = 10*60*1000; // milliseconds
+    public static final int DEFAULT_QUEUE = 256; // queries waiting per site
+
+    /**
+     * One site and its resources.
+     */
+    private static final class Route {
+        private final String name;
+        private final ParserWithMenu parser;
+        private final ThreadPoolExecutor threads; // sized by the concurrency limit of the site
+
+        private Route(String name, ParserWithMenu parser, int concurrency, int queue) {
+            this.name = name;
+            this.parser = parser;
+            this.threads = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queue), (Runnable task) -> {
+                Thread thread = new Thread(task, "scrapper-"+name+"-"+COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, SiteRouter::Wait);
+        }
+    }
+
+    /**
+     * Waits for room in the full queue of a site, instead of refusing the
+     * query; the concurrency limit of the site still holds.
+     */
+    private static void Wait(Runnable task, ThreadPoolExecutor threads) {
+        if(threads.isShutdown())
+            throw new RejectedExecutionException("Router closed.");
+        try {
+            threads.getQueue().put(task);
+        }catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for the queue of the site.", ex);
+        }
+    }
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private final Map<String, Route> routes = new LinkedHashMap<>();
+    private final int cacheEntries;
+    private final long cacheTtl;
+
+    private final Object lock = new Object();
+    private int pending = 0; // queries submitted and not finished, guarded by lock
+
+    public SiteRouter() {
+        this(DEFAULT_CACHE_ENTRIES, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * @param cacheEntries results cached per site, 0 disables the cache
+     * @param cacheTtl milliseconds, 0 never expires
+     */
+    public SiteRouter(int cacheEntries, long cacheTtl) {
+        if(cacheEntries < 0 || cacheTtl < 0)
+            throw new IllegalArgumentException("Cache size and time must not be negative.");
+        this.cacheEntries = cacheEntries;
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Routes all the profiles, each one with the same concurrency limit.
+     *
+     * @param profiles parsers by site name, like SiteProfile.Defaults()
+     * @param concurrency
+     * @return
+     */
+    public static SiteRouter Of(Map<String, ? extends ParserWithMenu> profiles, int concurrency) {
+        SiteRouter router = new SiteRouter();
+        for(Map.Entry<String, ? extends ParserWithMenu> profile : profiles.entrySet())
+            router.Add(profile.getKey(), profile.getValue(), concurrency);
+        return router;
+    }
+
+    /**
+     * Adds a site, with the default queue.
+     *
+     * @param name
+     * @param parser
+     * @param concurrency queries of this site running at the same time
+     * @return
+     */
+    public SiteRouter Add(String name, ParserWithMenu parser, int concurrency) {
+        return Add(name, parser, concurrency, DEFAULT_QUEUE);
+    }
+
+    /**
+     * Adds a site. A parser with no cache gets its own one, so the results
+     * of each site are kept apart.
+     *
+     * @param name
+     * @param parser
+     * @param concurrency queries of this site running at the same time
+     * @param queue queries of this site waiting for a thread
+     * @return
+     */
+    public synchronized SiteRouter Add(String name, ParserWithMenu parser, int concurrency, int queue) {
+        if(name == null || parser == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        if(concurrency < 1 || queue < 1)
+            throw new IllegalArgumentException("Concurrency and queue must be positive.");
+        if(routes.containsKey(name))
+            throw new IllegalArgumentException("Site already routed: "+name);
+        if(parser.getCache() == null && cacheEntries > 0)
+            parser.setCache(new ResultCache(cacheEntries, cacheTtl));
+        routes.put(name, new Route(name, parser, concurrency, queue));
+        return this;
+    }
+
+    public synchronized Map<String, ParserWithMenu> getSites() {
+        Map<String, ParserWithMenu> sites = new LinkedHashMap<>();
+        for(Route route : routes.values())
+            sites.put(route.name, route.parser);
+        return Collections.unmodifiableMap(sites);
+    }
+
+    /**
+     * Finds the site whose source starts the url, like a link to a page.
+     *
+     * @param url
+     * @return null if no site matches
+     */
+    public synchronized String Resolve(String url) {
+        String found = null;
+        int length = -1;
+        for(Route route : routes.values()) {
+            String source = route.parser.getSource();
+            if(source != null && url.startsWith(source) && source.length() > length) {
+                found = route.name;
+                length = source.length();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Scraps a section in the threads of the site and waits for it.
+     *
+     * @param site
+     * @param query
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @return
+     * @throws InterruptedException
+     */
+    public ParseResult Parse(String site, String query, String section) throws InterruptedException {
+        Route route = Route(site);
+        Future<ParseResult> result = route.threads.submit(() -> route.parser.Parse(query, section));
+        try {
+            return result.get();
+        }catch(ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if(cause instanceof Error)
+                throw (Error) cause;
+            throw route.parser.ParsingError((Exception) cause);
+        }
+    }
+
+    /**
+     * Schedules a query on its site and returns at once; the queries wait
+     * in the queue of their own site, or here while that queue is full.
+     *
+     * @param site
+     * @param query
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @param listener
+     */
+    public void Submit(String site, String query, String section, BatchScraper.Listener listener) {
+        if(query == null || listener == null)
+            throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+        Route route = Route(site);
+        String wanted = section != null ? section : SectionParser.ALL_SECTIONS;
+
+        synchronized(lock) {
+            pending++;
+        }
+        try {
+            route.threads.execute(() -> {
+                try {
+                    ParseResult result;
+                    try {
+                        result = route.parser.Parse(query, wanted);
+                    }catch(RuntimeException ex) {
+                        listener.onError(query, ex);
+                        return;
+                    }
+                    listener.onResult(result);
+                }catch(RuntimeException ignored) {
+                }finally {
+                    Done();
+                }
+            });
+        }catch(RuntimeException ex) {
+            Done();
+            throw ex;
+        }
+    }
+
+    /**
+     * Scraps the queries of all sites in parallel and waits for them.
+     *
+     * @param queries queries by site name
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @param listener
+     * @throws InterruptedException
+     */
+    public void Scrap(Map<String, ? extends Iterable<String>> queries, String section, BatchScraper.Listener listener) throws InterruptedException {
+        for(Map.Entry<String, ? extends Iterable<String>> site : queries.entrySet()) {
+            for(String query : site.getValue())
+                Submit(site.getKey(), query, section, listener);
+        }
+        Await();
+    }
+
+    /**
+     * Waits until every submitted query is finished.
+     *
+     * @throws InterruptedException
+     */
+    public void Await() throws InterruptedException {
+        synchronized(lock) {
+            while(pending > 0)
+                lock.wait();
+        }
+    }
+
+    private void Done() {
+        synchronized(lock) {
+            if(--pending == 0)
+                lock.notifyAll();
+        }
+    }
+
+    private synchronized Route Route(String site) {
+        Route route = routes.get(site);
+        if(route == null)
+            throw new IllegalArgumentException("Unknown site: "+site);
+        return route;
+    }
+
+    @Override
+    public synchronized void close() {
+        for(Route route : routes.values())
+            route.threads.shutdown();
+        try {
+            for(Route route : routes.values())
+                route.threads.awaitTermination(1, TimeUnit.MINUTES);
+        }catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
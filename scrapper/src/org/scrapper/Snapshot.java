@@ -0,0 +1,342 @@
+package org.scrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+* Name: Snapshot
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Binary format of scraped articles, written by SnapshotWriter
+* and read by SnapshotReader.
+*   header   MAGIC, VERSION
+*   blocks   stored length, raw length, codec, payload (one article each)
+*   index    count, then query and block offset of each article
+*   trailer  index offset, MAGIC
+* An article payload has the query, the title, the options, the sections
+* (title and byte range in the text) and the clean text of all sections,
+* in UTF-8; each range is the own text of its section, without the
+* subsections, so the ranges follow each other without overlapping. The
+* first entry, with an empty title (LEAD), is the text before the first
+* heading; the whole text answers the "all" section. Version 1 files have
+* no lead. Strings are length-prefixed; numbers are big-endian.
+*/
+public final class Snapshot {
+
+    public static final int MAGIC = 0x46485331; // "FHS1"
+    public static final int VERSION = 2;
+    public static final String LEAD = ""; // title of the lead entry
+
+    static final int HEADER = 8; // bytes
+    static final int BLOCK_HEADER = 9; // bytes
+    static final int TRAILER = 12; // bytes
+    static final byte RAW = 0, DEFLATE = 1;
+    static final int MIN_COMPRESSED = 512; // bytes, smaller blocks are kept raw
+
+    private Snapshot() { }
+
+    /**
+     * Article with the lead and the text of every section.
+     */
+    public static final class Article {
+        private final String query;
+        private final String title;
+        private final String[] options;
+        private final String lead;
+        private final String[] sections;
+        private final String[] texts;
+
+        public Article(String query, String title, String[] options, String[] sections, String[] texts) {
+            this(query, title, options, "", sections, texts);
+        }
+
+        public Article(String query, String title, String[] options, String lead, String[] sections, String[] texts) {
+            if(query == null || options == null || sections == null || texts == null)
+                throw new NullPointerException(ParserWithMenu.NULL_ARGS_ERROR);
+            if(sections.length != texts.length)
+                throw new IllegalArgumentException("Each section must have a text.");
+            this.query = query;
+            this.title = title != null ? title : "";
+            this.options = options.clone();
+            this.lead = lead != null ? lead : "";
+            this.sections = sections.clone();
+            this.texts = texts.clone();
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String[] getOptions() {
+            return options.clone();
+        }
+
+        /**
+         * Gets the text before the first heading.
+         *
+         * @return
+         */
+        public String getLead() {
+            return lead;
+        }
+
+        public List<String> getSections() {
+            return Collections.unmodifiableList(Arrays.asList(sections));
+        }
+
+        /**
+         * Gets the own text of the section, without its subsections, or the
+         * whole text for SectionParser.ALL_SECTIONS.
+         *
+         * @param section
+         * @return null if the article has no such section
+         */
+        public String getText(String section) {
+            if(IsAll(section)) {
+                StringBuilder text = new StringBuilder(lead);
+                for(String part : texts)
+                    text.append(part);
+                return text.toString();
+            }
+            for(int i = 0; i < sections.length; i++) {
+                if(sections[i].equalsIgnoreCase(section))
+                    return texts[i];
+            }
+            return null;
+        }
+    }
+
+    /*
+    * ============================    CODING    ================================
+    */
+
+    /**
+     * Encodes the article as a payload.
+     */
+    static byte[] Encode(Article article) {
+        byte[][] texts = new byte[article.texts.length+1][];
+        String[] titles = new String[texts.length];
+        texts[0] = article.lead.getBytes(StandardCharsets.UTF_8);
+        titles[0] = LEAD;
+        int size = texts[0].length;
+        for(int i = 1; i < texts.length; i++) {
+            texts[i] = article.texts[i-1].getBytes(StandardCharsets.UTF_8);
+            titles[i] = article.sections[i-1];
+            size += texts[i].length;
+        }
+        Output out = new Output(size+256);
+        out.Utf(article.query);
+        out.Utf(article.title);
+        out.Int(article.options.length);
+        for(String option : article.options)
+            out.Utf(option);
+        out.Int(titles.length);
+        int start = 0;
+        for(int i = 0; i < texts.length; i++) {
+            out.Utf(titles[i]);
+            out.Int(start);
+            out.Int(texts[i].length);
+            start += texts[i].length;
+        }
+        out.Int(size);
+        for(byte[] text : texts)
+            out.write(text, 0, text.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a whole payload.
+     */
+    static Article Decode(ByteBuffer payload) throws IOException {
+        try {
+            String query = Utf(payload);
+            String title = Utf(payload);
+            String[] options = new String[Count(payload)];
+            for(int i = 0; i < options.length; i++)
+                options[i] = Utf(payload);
+            int count = Count(payload);
+            String[] sections = new String[count];
+            int[] ranges = new int[count*2];
+            for(int i = 0; i < count; i++) {
+                sections[i] = Utf(payload);
+                ranges[i*2] = payload.getInt();
+                ranges[i*2+1] = payload.getInt();
+            }
+            int size = Count(payload);
+            int base = payload.position();
+            String[] texts = new String[count];
+            for(int i = 0; i < count; i++)
+                texts[i] = Text(payload, base, ranges[i*2], ranges[i*2+1], size);
+            if(count > 0 && sections[0].equals(LEAD)) // not in version 1
+                return new Article(query, title, options, texts[0],
+                        Arrays.copyOfRange(sections, 1, count), Arrays.copyOfRange(texts, 1, count));
+            return new Article(query, title, options, sections, texts);
+        }catch(BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt snapshot block.", ex);
+        }
+    }
+
+    /**
+     * Decodes the text of one section only, skipping the rest of the payload;
+     * LEAD is the lead and SectionParser.ALL_SECTIONS the whole text.
+     *
+     * @return null if the article has no such section
+     */
+    static String Section(ByteBuffer payload, String section) throws IOException {
+        try {
+            Skip(payload); // query
+            Skip(payload); // title
+            for(int i = Count(payload); i > 0; i--)
+                Skip(payload);
+            int count = Count(payload);
+            int start = -1, length = 0;
+            for(int i = 0; i < count; i++) {
+                String name = Utf(payload);
+                int from = payload.getInt(), size = payload.getInt();
+                if(start < 0 && name.equalsIgnoreCase(section)) {
+                    start = from;
+                    length = size;
+                }
+            }
+            int size = Count(payload);
+            if(IsAll(section))
+                return Text(payload, payload.position(), 0, size, size);
+            return start < 0 ? null : Text(payload, payload.position(), start, length, size);
+        }catch(BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt snapshot block.", ex);
+        }
+    }
+
+    /**
+     * Compresses the payload.
+     *
+     * @return null if it is not worth it
+     */
+    static byte[] Deflate(byte[] raw) {
+        if(raw.length < MIN_COMPRESSED)
+            return null;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length/2);
+            byte[] chunk = new byte[8192];
+            while(!deflater.finished())
+                out.write(chunk, 0, deflater.deflate(chunk));
+            byte[] packed = out.toByteArray();
+            return packed.length < raw.length ? packed : null;
+        }finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Gets the payload of a block; a raw block is read in place.
+     */
+    static ByteBuffer Unpack(ByteBuffer stored, int rawLength, byte codec) throws IOException {
+        if(codec == RAW)
+            return stored;
+        if(codec != DEFLATE)
+            throw new IOException("Unknown snapshot codec: "+codec);
+        Inflater inflater = new Inflater();
+        try {
+            byte[] input = new byte[stored.remaining()];
+            stored.get(input);
+            inflater.setInput(input);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while(read < rawLength && !inflater.finished())
+                read += inflater.inflate(raw, read, rawLength-read);
+            if(read != rawLength)
+                throw new IOException("Corrupt snapshot block.");
+            return ByteBuffer.wrap(raw);
+        }catch(DataFormatException ex) {
+            throw new IOException("Corrupt snapshot block.", ex);
+        }finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean IsAll(String section) {
+        return section.equalsIgnoreCase(SectionParser.ALL_SECTIONS) || section.equals(ParserWithMenu.ALL_OPTIONS_MESSAGE);
+    }
+
+    static String Utf(ByteBuffer buffer) {
+        int length = Count(buffer);
+        String text;
+        if(buffer.hasArray()) {
+            text = new String(buffer.array(), buffer.arrayOffset()+buffer.position(), length, StandardCharsets.UTF_8);
+        }else {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().get(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position()+length);
+        return text;
+    }
+
+    private static void Skip(ByteBuffer buffer) {
+        int length = Count(buffer);
+        buffer.position(buffer.position()+length);
+    }
+
+    private static int Count(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if(count < 0 || count > buffer.remaining())
+            throw new IllegalArgumentException("Invalid length: "+count);
+        return count;
+    }
+
+    private static String Text(ByteBuffer payload, int base, int start, int length, int size) {
+        if(start < 0 || length < 0 || start+length > size || base+size > payload.limit())
+            throw new IllegalArgumentException("Invalid section range.");
+        ByteBuffer text = payload.duplicate();
+        text.position(base+start);
+        text.limit(base+start+length);
+        if(text.hasArray())
+            return new String(text.array(), text.arrayOffset()+text.position(), length, StandardCharsets.UTF_8);
+        return StandardCharsets.UTF_8.decode(text).toString();
+    }
+
+    /**
+     * Growing buffer for the payload.
+     */
+    static final class Output extends ByteArrayOutputStream {
+
+        Output(int size) {
+            super(size);
+        }
+
+        void Int(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void Long(long value) {
+            Int((int) (value >>> 32));
+            Int((int) value);
+        }
+
+        void Utf(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            Int(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+}
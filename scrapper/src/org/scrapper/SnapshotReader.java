@@ -0,0 +1,167 @@
+package org.scrapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+* Name: SnapshotReader
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Reads a Snapshot file through a memory-mapped channel. Only
+* the index is read when opened; an article or a section is then read from
+* its own block, so no lookup scans the file. A raw block is decoded in
+* place, and for a section only its own bytes are decoded. Thread-safe.
+*/
+public final class SnapshotReader implements Closeable{
+
+    private static final long MAX_MAPPED = Integer.MAX_VALUE; // bytes, larger files are mapped per block
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped; // the whole file, null if too large
+    private final Map<String, Long> index; // block offset by query
+
+    public SnapshotReader(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "r");
+        try {
+            this.channel = file.getChannel();
+            long size = channel.size();
+            if(size < Snapshot.HEADER+Snapshot.TRAILER)
+                throw new IOException("Not a snapshot: "+path);
+            this.mapped = size <= MAX_MAPPED ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+
+            ByteBuffer header = Map(0, Snapshot.HEADER);
+            ByteBuffer trailer = Map(size-Snapshot.TRAILER, Snapshot.TRAILER);
+            if(header.getInt() != Snapshot.MAGIC || trailer.getInt(8) != Snapshot.MAGIC)
+                throw new IOException("Not a snapshot: "+path);
+            int version = header.getInt();
+            if(version < 1 || version > Snapshot.VERSION)
+                throw new IOException("Unsupported snapshot version: "+path);
+
+            long start = trailer.getLong(0);
+            if(start < Snapshot.HEADER || start > size-Snapshot.TRAILER)
+                throw new IOException("Corrupt snapshot index: "+path);
+            this.index = Index(Map(start, (int) Math.min(Integer.MAX_VALUE, size-Snapshot.TRAILER-start)), start);
+        }catch(IOException | RuntimeException ex) {
+            file.close();
+            throw ex;
+        }
+    }
+
+    private static Map<String, Long> Index(ByteBuffer buffer, long limit) throws IOException {
+        try {
+            int count = buffer.getInt();
+            Map<String, Long> index = new HashMap<>(Math.max(16, count*4/3+1));
+            for(int i = 0; i < count; i++) {
+                String query = Snapshot.Utf(buffer);
+                long offset = buffer.getLong();
+                if(offset < Snapshot.HEADER || offset >= limit)
+                    throw new IOException("Corrupt snapshot index.");
+                index.put(query, offset);
+            }
+            return index;
+        }catch(BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt snapshot index.", ex);
+        }
+    }
+
+    /**
+     * Gets the queries of the articles.
+     *
+     * @return
+     */
+    public Set<String> getQueries() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(index.keySet()));
+    }
+
+    public int getSize() {
+        return index.size();
+    }
+
+    public boolean Contains(String query) {
+        return index.containsKey(query);
+    }
+
+    /**
+     * Reads the whole article.
+     *
+     * @param query
+     * @return null if the snapshot has no such article
+     * @throws IOException
+     */
+    public Snapshot.Article Get(String query) throws IOException {
+        ByteBuffer payload = Payload(query);
+        return payload != null ? Snapshot.Decode(payload) : null;
+    }
+
+    /**
+     * Reads the text of one section of the article.
+     *
+     * @param query
+     * @param section title, or SectionParser.ALL_SECTIONS for the whole text
+     * @return null if the snapshot has no such article or section
+     * @throws IOException
+     */
+    public String Section(String query, String section) throws IOException {
+        ByteBuffer payload = Payload(query);
+        return payload != null ? Snapshot.Section(payload, section) : null;
+    }
+
+    /**
+     * Reads the text of the article before its first heading.
+     *
+     * @param query
+     * @return null if the snapshot has no such article; empty for version 1 files
+     * @throws IOException
+     */
+    public String Lead(String query) throws IOException {
+        ByteBuffer payload = Payload(query);
+        if(payload == null)
+            return null;
+        String lead = Snapshot.Section(payload, Snapshot.LEAD);
+        return lead != null ? lead : "";
+    }
+
+    private ByteBuffer Payload(String query) throws IOException {
+        Long offset = index.get(query);
+        if(offset == null)
+            return null;
+        ByteBuffer header = Map(offset, Snapshot.BLOCK_HEADER);
+        int stored = header.getInt();
+        int raw = header.getInt();
+        byte codec = header.get();
+        if(stored < 0 || raw < 0 || offset+Snapshot.BLOCK_HEADER+stored > channel.size())
+            throw new IOException("Corrupt snapshot block: "+query);
+        return Snapshot.Unpack(Map(offset+Snapshot.BLOCK_HEADER, stored), raw, codec);
+    }
+
+    /**
+     * Gets a view of the bytes; each caller gets its own positions.
+     */
+    private ByteBuffer Map(long offset, int length) throws IOException {
+        if(mapped != null) {
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) offset);
+            view.limit((int) offset+length);
+            return view.slice();
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+}
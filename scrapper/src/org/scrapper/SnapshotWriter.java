@@ -0,0 +1,107 @@
+package org.scrapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+* Name: SnapshotWriter
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Writes articles in the Snapshot format, one block each, and
+* the index of the blocks when closed. The index is kept in memory until
+* then; an article written twice is indexed at its last block.
+*/
+public final class SnapshotWriter implements Closeable{
+
+    private final FileChannel channel;
+    private final boolean compress;
+    private final Map<String, Long> index = new LinkedHashMap<>(); // block offset by query
+    private long position;
+    private boolean closed = false;
+
+    /**
+     * Creates the file, replacing it.
+     *
+     * @param file
+     * @param compress deflates the blocks that get smaller
+     * @throws IOException
+     */
+    public SnapshotWriter(File file, boolean compress) throws IOException {
+        this.channel = new FileOutputStream(file).getChannel();
+        this.compress = compress;
+        ByteBuffer header = ByteBuffer.allocate(Snapshot.HEADER);
+        header.putInt(Snapshot.MAGIC).putInt(Snapshot.VERSION).flip();
+        Write(header);
+    }
+
+    /**
+     * Writes the article.
+     *
+     * @param article
+     * @throws IOException
+     */
+    public synchronized void Add(Snapshot.Article article) throws IOException {
+        if(closed)
+            throw new IOException("Snapshot closed.");
+        byte[] raw = Snapshot.Encode(article);
+        byte[] packed = compress ? Snapshot.Deflate(raw) : null;
+        byte[] stored = packed != null ? packed : raw;
+
+        ByteBuffer block = ByteBuffer.allocate(Snapshot.BLOCK_HEADER+stored.length);
+        block.putInt(stored.length).putInt(raw.length).put(packed != null ? Snapshot.DEFLATE : Snapshot.RAW).put(stored).flip();
+        index.remove(article.getQuery()); // keeps the index in the order of the blocks
+        index.put(article.getQuery(), position);
+        Write(block);
+    }
+
+    /**
+     * Writes every section of the page of the context.
+     *
+     * @param context
+     * @throws IOException
+     */
+    public void Add(ParseContext context) throws IOException {
+        Add(context.toArticle());
+    }
+
+    public synchronized int getSize() {
+        return index.size();
+    }
+
+    private void Write(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining())
+            position += channel.write(buffer);
+    }
+
+    /**
+     * Writes the index and the trailer, then closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(closed)
+            return;
+        closed = true;
+        try {
+            long start = position;
+            Snapshot.Output out = new Snapshot.Output(index.size()*32+4);
+            out.Int(index.size());
+            for(Map.Entry<String, Long> entry : index.entrySet()) {
+                out.Utf(entry.getKey());
+                out.Long(entry.getValue());
+            }
+            out.Long(start);
+            out.Int(Snapshot.MAGIC);
+            Write(ByteBuffer.wrap(out.toByteArray()));
+            channel.force(false);
+        }finally {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,491 @@
+package org.scrapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
+import org.jsoup.parser.Tag;
+import org.jsoup.select.Evaluator;
+
+/**
+* Name: StreamingExtractor
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Gets the text of a section while the page is read, without
+* building the DOM. Only the open tags, the content block and the headline
+* boundaries are tracked; reading stops as soon as the section ends, so the
+* memory is bounded by the section, not by the page.
+*/
+public final class StreamingExtractor {
+
+    private static final int BUFFER_SIZE = 8*1024;
+    private static final int NO_LEVEL = 7; // headline outside h1-h6
+
+    private final Evaluator contentTag;
+    private final Evaluator mainTag;
+    private final Predicate<Element> unnecessary;
+
+    public StreamingExtractor(String contentTag, String mainTag, Predicate<Element> unnecessary) {
+        this.contentTag = Selectors.Compile(contentTag);
+        this.mainTag = Selectors.Compile(mainTag);
+        if(this.contentTag == null || this.mainTag == null)
+            throw new IllegalArgumentException("Streaming mode needs simple selectors: "+contentTag+", "+mainTag);
+        this.unnecessary = unnecessary;
+    }
+
+    /**
+     * Reads the page until the section ends.
+     *
+     * @param reader the page; it is not closed here
+     * @param section option title or SectionParser.ALL_SECTIONS
+     * @return clean text, like Builder.clear; null if the section was not found
+     * @throws IOException
+     */
+    public String Extract(Reader reader, String section) throws IOException {
+        String wanted = ParserWithMenu.Unmark(section).trim();
+        boolean all = wanted.equalsIgnoreCase(SectionParser.ALL_SECTIONS) || wanted.equals(ParserWithMenu.ALL_OPTIONS_MESSAGE);
+        return new Scan(reader, wanted, all, null).Run();
+    }
+
+    /**
+     * Reads all content of the page, pushing each paragraph as soon as it
+     * is closed, so only one paragraph is held at a time.
+     *
+     * @param reader the page; it is not closed here
+     * @param paragraphs receives the clean text of each paragraph
+     * @return number of paragraphs pushed, -1 if the content was not found
+     * @throws IOException
+     */
+    public int Extract(Reader reader, Consumer<CharSequence> paragraphs) throws IOException {
+        Scan scan = new Scan(reader, ParserWithMenu.ALL_OPTIONS_MESSAGE, true, paragraphs);
+        scan.Run();
+        return scan.found ? scan.pushed : -1;
+    }
+
+    /**
+     * One open element.
+     */
+    private static final class Frame {
+        private final String name;
+        private final boolean content, headline, skip, paragraph, wrapper;
+        private final int level; // heading level, 0 if not a heading
+
+        private Frame(String name, boolean content, boolean headline, boolean skip, boolean paragraph, boolean wrapper, int level) {
+            this.name = name;
+            this.content = content;
+            this.headline = headline;
+            this.skip = skip;
+            this.paragraph = paragraph;
+            this.wrapper = wrapper;
+            this.level = level;
+        }
+    }
+
+    /**
+     * State of one read.
+     */
+    private final class Scan {
+        private final Reader reader;
+        private final String wanted;
+        private final boolean all;
+        private final Consumer<CharSequence> sink; // null collects the text in out
+        private int pushed = 0;
+
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position = 0, limit = 0;
+
+        private final List<Frame> stack = new ArrayList<>();
+        private int content = 0, skip = 0, paragraphs = 0, headlines = 0;
+        private int heading = 0; // level of the innermost open heading
+
+        private StringBuilder title = null; // text of the open headline
+        private int level = 0; // level of the section being read
+        private int start = -1; // stack size once the heading of the section is closed
+        private boolean found = false, active = false, done = false, seenContent = false, firstParagraph = true;
+
+        private TextNormalizer out = new TextNormalizer();
+        private final StringBuilder text = new StringBuilder();
+
+        private Scan(Reader reader, String wanted, boolean all, Consumer<CharSequence> sink) {
+            this.reader = reader;
+            this.wanted = wanted;
+            this.all = all;
+            this.sink = sink;
+        }
+
+        private String Run() throws IOException {
+            int c;
+            while(!done && (c = Next()) != -1) {
+                if(c == '<')
+                    Markup();
+                else
+                    text.append((char) c);
+            }
+            Flush();
+            if(sink != null && paragraphs > 0)
+                Push(); // the page ended inside a paragraph
+            if(!found)
+                return null;
+            String result = out.toString();
+            return all ? result.replace('ʘ', '\n') : result;
+        }
+
+        /*
+        * ========================    TOKENIZER    =============================
+        */
+
+        private int Next() throws IOException {
+            if(position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if(limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private void Back() {
+            position--;
+        }
+
+        private void Markup() throws IOException {
+            int c = Next();
+            if(c == '/') {
+                Flush();
+                String name = Name(Next());
+                Skip('>');
+                if(!name.isEmpty())
+                    End(name);
+            }else if(c == '!' || c == '?') {
+                Flush();
+                Comment();
+            }else if(c != -1 && Character.isLetter(c)) {
+                Flush();
+                StartTag(c);
+            }else {
+                text.append('<');
+                if(c != -1)
+                    Back();
+            }
+        }
+
+        private String Name(int first) throws IOException {
+            StringBuilder name = new StringBuilder();
+            int c = first;
+            while(c != -1 && c != '>' && c != '/' && !Character.isWhitespace(c)) {
+                name.append(Character.toLowerCase((char) c));
+                c = Next();
+            }
+            if(c != -1)
+                Back();
+            return name.toString();
+        }
+
+        private void StartTag(int first) throws IOException {
+            String name = Name(first);
+            Attributes attributes = new Attributes();
+            boolean selfClosing = false;
+            int c;
+            while((c = Next()) != -1 && c != '>') {
+                if(c == '/') {
+                    selfClosing = true;
+                }else if(!Character.isWhitespace(c)) {
+                    selfClosing = false;
+                    Attribute(c, attributes);
+                }
+            }
+            Start(name, attributes, selfClosing);
+
+            // the contents of script and style are not text
+            if(name.equals("script") || name.equals("style")) {
+                RawText(name);
+                End(name);
+            }
+        }
+
+        private void Attribute(int first, Attributes attributes) throws IOException {
+            StringBuilder key = new StringBuilder();
+            int c = first;
+            while(c != -1 && c != '=' && c != '>' && c != '/' && !Character.isWhitespace(c)) {
+                key.append(Character.toLowerCase((char) c));
+                c = Next();
+            }
+            if(c != '=') {
+                if(c != -1)
+                    Back();
+                attributes.put(key.toString(), "");
+                return;
+            }
+            StringBuilder value = new StringBuilder();
+            c = Next();
+            if(c == '"' || c == '\'') {
+                int quote = c;
+                while((c = Next()) != -1 && c != quote)
+                    value.append((char) c);
+            }else {
+                while(c != -1 && c != '>' && !Character.isWhitespace(c)) {
+                    value.append((char) c);
+                    c = Next();
+                }
+                if(c != -1)
+                    Back();
+            }
+            attributes.put(key.toString(), Unescape(value));
+        }
+
+        private void Comment() throws IOException {
+            int c = Next();
+            if(c == '-' && Next() == '-') {
+                int dashes = 0;
+                while((c = Next()) != -1) {
+                    if(c == '>' && dashes >= 2)
+                        return;
+                    dashes = c == '-' ? dashes+1 : 0;
+                }
+            }else {
+                Skip('>');
+            }
+        }
+
+        private void RawText(String name) throws IOException {
+            String close = "</"+name;
+            int matched = 0, c;
+            while((c = Next()) != -1) {
+                matched = Character.toLowerCase((char) c) == close.charAt(matched) ? matched+1 : (c == '<' ? 1 : 0);
+                if(matched == close.length()) {
+                    Skip('>');
+                    return;
+                }
+            }
+        }
+
+        private void Skip(char until) throws IOException {
+            int c;
+            while((c = Next()) != -1 && c != until) { }
+        }
+
+        /*
+        * =========================    TRACKING    =============================
+        */
+
+        private void Start(String name, Attributes attributes, boolean selfClosing) {
+            Element element = new Element(Tag.valueOf(name), "", attributes);
+            int headingLevel = HeadingLevel(name);
+
+            // a heading of the same or a higher level ends the section
+            if(active && headingLevel > 0 && headingLevel <= level) {
+                done = true;
+                return;
+            }
+
+            boolean isContent = contentTag.matches(element, element);
+            boolean isSkip = content > 0 && unnecessary.test(element);
+            boolean isHeadline = (content > 0 || isContent) && !isSkip && mainTag.matches(element, element);
+            boolean isParagraph = name.equals("p");
+
+            // paragraphs of the whole page are split by a new line, like LastParseMethod
+            if(all && isParagraph && content > 0 && skip == 0 && paragraphs == 0) {
+                if(!firstParagraph && sink == null)
+                    out.Append("ʘ");
+                firstParagraph = false;
+            }
+            if(Reading() || all && isParagraph && content > 0 && skip == 0) {
+                if(element.isBlock() || name.equals("br"))
+                    out.Append(" ");
+            }
+
+            if(element.tag().isEmpty() || selfClosing && !element.tag().isKnownTag())
+                return;
+
+            stack.add(new Frame(name, isContent, isHeadline, isSkip, isParagraph, element.hasClass("mw-heading"), headingLevel));
+            if(isContent) { content++; seenContent = true; }
+            if(isSkip) skip++;
+            if(isParagraph) paragraphs++;
+            if(headingLevel > 0) heading = headingLevel;
+            if(isHeadline) {
+                headlines++;
+                if(headlines == 1)
+                    title = new StringBuilder();
+            }
+            if(all && content > 0)
+                found = true;
+        }
+
+        private void End(String name) {
+            int index = stack.size()-1;
+            while(index >= 0 && !stack.get(index).name.equals(name))
+                index--;
+            if(index < 0)
+                return; // stray end tag
+            while(stack.size() > index)
+                Pop();
+
+            // the section starts once its heading is closed, and ends with its parent
+            if(found && !all) {
+                if(!active && stack.size() <= start)
+                    active = true;
+                else if(active && stack.size() < start)
+                    done = true;
+            }
+
+            if(all && seenContent && content == 0)
+                done = true; // the content block is over
+        }
+
+        private void Pop() {
+            Frame frame = stack.remove(stack.size()-1);
+            if(frame.content) content--;
+            if(frame.skip) skip--;
+            if(frame.paragraph && --paragraphs == 0 && sink != null && content > 0)
+                Push();
+            if(frame.level > 0) heading = OpenHeading();
+            if(frame.headline && --headlines == 0)
+                Headline();
+        }
+
+        private void Headline() {
+            String name = title.toString();
+            title = null;
+            if(all || found)
+                return;
+            if(SectionIndex.Title(name).equals(wanted)) {
+                found = true;
+                level = heading > 0 ? heading : NO_LEVEL;
+                start = HeadingIndex();
+                if(start < 0) {
+                    start = stack.size();
+                    active = true;
+                }
+            }
+        }
+
+        private void Push() {
+            String paragraph = out.toString();
+            out = new TextNormalizer();
+            if(!paragraph.isEmpty()) {
+                sink.accept(paragraph);
+                pushed++;
+            }
+        }
+
+        private int OpenHeading() {
+            for(int i = stack.size()-1; i >= 0; i--) {
+                if(stack.get(i).level > 0)
+                    return stack.get(i).level;
+            }
+            return 0;
+        }
+
+        /**
+         * Gets the position of the open heading, or of its mw-heading wrapper.
+         */
+        private int HeadingIndex() {
+            for(int i = stack.size()-1; i >= 0; i--) {
+                if(stack.get(i).level > 0)
+                    return i > 0 && stack.get(i-1).wrapper ? i-1 : i;
+            }
+            return -1;
+        }
+
+        /*
+        * ===========================    TEXT    ===============================
+        */
+
+        private boolean Reading() {
+            if(content == 0 || skip > 0)
+                return false;
+            if(all)
+                return paragraphs > 0;
+            return active;
+        }
+
+        private void Flush() {
+            if(text.length() == 0)
+                return;
+            String chunk = Unescape(text);
+            text.setLength(0);
+            if(title != null && skip == 0)
+                title.append(chunk);
+            Text(chunk);
+        }
+
+        private void Text(String chunk) {
+            if(Reading())
+                out.Append(chunk);
+        }
+    }
+
+    /**
+     * Decodes the character references, like &amp;amp; and &amp;#233;. Cheaper
+     * than Parser.unescapeEntities, which builds a tokenizer on each call.
+     */
+    static String Unescape(CharSequence text) {
+        int amp = -1;
+        for(int i = 0; i < text.length() && amp < 0; i++) {
+            if(text.charAt(i) == '&')
+                amp = i;
+        }
+        if(amp < 0)
+            return text.toString();
+
+        StringBuilder out = new StringBuilder(text.length());
+        out.append(text, 0, amp);
+        int i = amp;
+        while(i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '&' ? Reference(text, i+1) : -1;
+            if(end < 0) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            String name = text.subSequence(i+1, end).toString();
+            String value = null;
+            if(name.startsWith("#")) {
+                try {
+                    boolean hex = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X');
+                    int code = Integer.parseInt(name.substring(hex ? 2 : 1), hex ? 16 : 10);
+                    if(Character.isValidCodePoint(code))
+                        value = new String(Character.toChars(code));
+                }catch(NumberFormatException ex) { }
+            }else if(end < text.length() && text.charAt(end) == ';' ? Entities.isNamedEntity(name) : Entities.isBaseNamedEntity(name)) {
+                value = Entities.getByName(name);
+            }
+            if(value == null) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            out.append(value);
+            i = end < text.length() && text.charAt(end) == ';' ? end+1 : end;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets the end of the reference name that starts at the index, -1 if there is none.
+     */
+    private static int Reference(CharSequence text, int start) {
+        int end = start;
+        if(end < text.length() && text.charAt(end) == '#')
+            end++;
+        while(end < text.length() && Character.isLetterOrDigit(text.charAt(end)))
+            end++;
+        return end > start ? end : -1;
+    }
+
+    private static int HeadingLevel(String name) {
+        if(name.length() == 2 && name.charAt(0) == 'h' && name.charAt(1) >= '1' && name.charAt(1) <= '6')
+            return name.charAt(1)-'0';
+        return 0;
+    }
+
+}
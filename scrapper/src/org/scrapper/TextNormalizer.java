@@ -0,0 +1,140 @@
+package org.scrapper;
+
+import java.util.function.Predicate;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+
+/**
+* Name: TextNormalizer
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: Single-pass cleaner behind Builder.clear. Collapses the
+* whitespace like Element.text(), keeping it in the text of elements like
+* <pre> and <textarea>, removes the brackets and their contents
+* and splits the paragraphs while the text is appended, using only one
+* output buffer. It may take DOM nodes straight, without Element.text().
+*/
+public final class TextNormalizer {
+
+    private static final String INDENT = "   ";
+    private static final String PARAGRAPH = ".\n\n"+INDENT;
+
+    private final StringBuilder out;
+    private boolean started = false; // some text was appended
+    private boolean bracket = false; // inside [ ]
+    private final StringBuilder space = new StringBuilder(); // whitespace waiting for the next char
+    private boolean dot = false; // a paragraph was split
+
+    public TextNormalizer() {
+        this(1024);
+    }
+
+    public TextNormalizer(int capacity) {
+        out = new StringBuilder(capacity+INDENT.length());
+        out.append(INDENT); // kept only if a paragraph is split
+    }
+
+    /**
+     * Appends plain text.
+     *
+     * @param text
+     * @return
+     */
+    public TextNormalizer Append(CharSequence text) {
+        return Append(text, false);
+    }
+
+    private TextNormalizer Append(CharSequence text, boolean preserve) {
+        for(int i = 0; i < text.length(); i++)
+            Append(text.charAt(i), preserve);
+        return this;
+    }
+
+    /**
+     * Appends the text of the node and its children, like Element.text().
+     *
+     * @param node
+     * @param unnecessary elements to skip, like the edit links
+     * @return
+     */
+    public TextNormalizer Append(Node node, Predicate<Element> unnecessary) {
+        if(node instanceof TextNode) {
+            Append(((TextNode) node).getWholeText(), Preserves(node.parentNode()));
+
+        }else if(node instanceof Element) {
+            // the contents of script and style are data nodes, they are left out
+            Element element = (Element) node;
+            if(unnecessary.test(element))
+                return this;
+            if(element.isBlock() || element.tagName().equals("br"))
+                Append(' ', false);
+            for(Node child : element.childNodes())
+                Append(child, unnecessary);
+        }
+        return this;
+    }
+
+    /**
+     * Tells if the text of the node keeps its whitespace, like in Element.text():
+     * the node or its parent is an element like <pre>.
+     */
+    private static boolean Preserves(Node node) {
+        if(!(node instanceof Element))
+            return false;
+        Element element = (Element) node;
+        return element.tag().preserveWhitespace()
+                || element.parent() != null && element.parent().tag().preserveWhitespace();
+    }
+
+    private void Append(char c, boolean preserve) {
+        if(c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+            // leading and trailing whitespace is dropped, the rest collapses
+            // into one space unless it is preserved
+            if(!bracket && started) {
+                if(preserve)
+                    space.append(c);
+                else if(space.length() == 0 || space.charAt(space.length()-1) != ' ')
+                    space.append(' ');
+            }
+            return;
+        }
+        started = true;
+        if(space.length() > 0 && !bracket) {
+            out.append(space);
+            space.setLength(0);
+        }
+        if(bracket) {
+            if(c == ']')
+                bracket = false;
+        }else if(c == '[') {
+            bracket = true;
+        }else if(c == '.') {
+            out.append(PARAGRAPH);
+            dot = true;
+        }else {
+            out.append(c);
+        }
+    }
+
+    /**
+     * Gets the clean text.
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        return dot ? out.toString() : out.substring(INDENT.length());
+    }
+
+    /**
+     * Cleans plain text in a single pass.
+     *
+     * @param text
+     * @return
+     */
+    public static String Normalize(CharSequence text) {
+        return new TextNormalizer(text.length()).Append(text).toString();
+    }
+
+}
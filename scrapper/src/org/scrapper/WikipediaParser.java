@@ -1,9 +1,11 @@
 package org.scrapper;
 
+import org.jsoup.nodes.Element;
+
 /**
 * Name: WikipediaParser
 * Date: 05-01-2017
-* Update: 14-01-2017
+* Update: 17-10-2026
 * Description: Wikipedia.org specifically parser object.
 */
 
@@ -24,7 +26,8 @@ public final class WikipediaParser extends ParserWithMenu{
 
     @Override
     public void initTagsAndSource() {
-        setSource("https://pt.wikipedia.org/wiki/");
+        // The source may be pointed to another server, like a local stub
+        setSource(System.getProperty("scrapper.wikipedia.source", "https://pt.wikipedia.org/wiki/"));
         setTag("span");
         setMainTag(getTag()+".mw-headline");
         setContentTag("#mw-content-text");
@@ -34,5 +37,10 @@ public final class WikipediaParser extends ParserWithMenu{
     public String RemoveUnnecessaryThings(String code) {
         return code.replace("<span><span>[</span>editar<span> | </span>editar código-fonte<span>]</span></span>", " ");
     }
+
+    @Override
+    public boolean IsUnnecessary(Element element) {
+        return element.hasClass("mw-editsection");
+    }
     
 }
@@ -0,0 +1,145 @@
+package org.scrapper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+* Name: HttpFetcherTest
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: HttpFetcher against a stub server on the loopback: the
+* timeouts, the body cap and the statuses that are not pages.
+*/
+public class HttpFetcherTest {
+
+    private static final String PAGE = "<html><body><div id=\"mw-content-text\"><p>Texto.</p></div></body></html>";
+
+    private HttpServer server;
+    private String base;
+    private Fetcher shared;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/page", (HttpExchange exchange) -> Answer(exchange, 200, PAGE.getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/large", (HttpExchange exchange) -> {
+            byte[] body = new byte[4096];
+            Arrays.fill(body, (byte) 'x');
+            Answer(exchange, 200, body);
+        });
+        server.createContext("/declared", (HttpExchange exchange) -> {
+            // declares far more than it sends; the client must refuse before reading
+            try {
+                exchange.sendResponseHeaders(200, 1L << 40);
+            }finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/missing", (HttpExchange exchange) -> Answer(exchange, 404, new byte[0]));
+        server.createContext("/throttled", (HttpExchange exchange) -> {
+            exchange.getResponseHeaders().set("Retry-After", "2");
+            Answer(exchange, 503, new byte[0]);
+        });
+        server.createContext("/moved", (HttpExchange exchange) -> {
+            exchange.getResponseHeaders().set("Location", "https://localhost/page");
+            Answer(exchange, 301, new byte[0]);
+        });
+        server.createContext("/slow", (HttpExchange exchange) -> {
+            try {
+                Thread.sleep(2000);
+            }catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            Answer(exchange, 200, PAGE.getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+        base = "http://localhost:"+server.getAddress().getPort();
+        shared = Builder.getFetcher();
+    }
+
+    @After
+    public void tearDown() {
+        Builder.setFetcher(shared);
+        server.stop(0);
+    }
+
+    private static void Answer(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }finally {
+            exchange.close();
+        }
+    }
+
+    private static FetchException Fails(Fetcher fetcher, String url) throws IOException {
+        try {
+            fetcher.Fetch(url);
+        }catch(FetchException ex) {
+            return ex;
+        }
+        fail("FetchException expected for "+url);
+        return null;
+    }
+
+    @Test
+    public void testFetch() throws IOException {
+        Page page = new HttpFetcher().Fetch(base+"/page");
+        assertEquals(Page.OK, page.getStatus());
+        assertEquals(PAGE, new String(page.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStubThroughBuilder() throws IOException {
+        Builder.setFetcher(new HttpFetcher());
+        Document doc = Builder.connect(base+"/page?builder", Builder.getFetcher());
+        assertEquals("Texto.", doc.select("#mw-content-text").text());
+    }
+
+    @Test
+    public void testBodyOverCap() throws IOException {
+        FetchException ex = Fails(new HttpFetcher(1000, 1000, 100), base+"/large");
+        assertEquals(200, ex.getStatus());
+        assertEquals(4096, new HttpFetcher(1000, 1000, 0).Fetch(base+"/large").getBody().length);
+    }
+
+    @Test
+    public void testDeclaredLengthOverCap() throws IOException {
+        FetchException ex = Fails(new HttpFetcher(1000, 1000, 100), base+"/declared");
+        assertEquals(200, ex.getStatus());
+    }
+
+    @Test
+    public void testStatuses() throws IOException {
+        Fetcher fetcher = new HttpFetcher();
+        assertEquals(404, Fails(fetcher, base+"/missing").getStatus());
+
+        FetchException throttled = Fails(fetcher, base+"/throttled");
+        assertEquals(503, throttled.getStatus());
+        assertEquals(2000, throttled.getRetryAfter());
+
+        FetchException moved = Fails(fetcher, base+"/moved");
+        assertEquals(301, moved.getStatus());
+        assertTrue(moved.getMessage().contains("https://localhost/page"));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testReadTimeout() throws IOException {
+        new HttpFetcher(1000, 300, 0).Fetch(base+"/slow");
+    }
+
+}
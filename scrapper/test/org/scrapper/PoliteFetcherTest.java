@@ -0,0 +1,141 @@
+package org.scrapper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+* Name: PoliteFetcherTest
+* Date: 17-10-2026
+* Update: 17-10-2026
+* Description: PoliteFetcher against a stub server on the loopback: the rate
+* of each host, the retries after a Retry-After and the backoff of the
+* throttling answers.
+*/
+public class PoliteFetcherTest {
+
+    private static final String PAGE = "<html><body><p>Texto.</p></body></html>";
+
+    private HttpServer server;
+    private String base;
+    private final List<Long> requests = Collections.synchronizedList(new ArrayList<>()); // nano times
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/page", (HttpExchange exchange) -> Answer(exchange, 200, null));
+        server.createContext("/unavailable", (HttpExchange exchange) -> {
+            // only the first request is refused
+            Answer(exchange, requests.isEmpty() ? 503 : 200, "1");
+        });
+        server.createContext("/throttled", (HttpExchange exchange) -> Answer(exchange, 429, null));
+        server.createContext("/missing", (HttpExchange exchange) -> Answer(exchange, 404, null));
+        server.start();
+        base = "http://localhost:"+server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void Answer(HttpExchange exchange, int status, String retryAfter) throws IOException {
+        requests.add(System.nanoTime());
+        try {
+            byte[] body = status == 200 ? PAGE.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            if(retryAfter != null)
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }finally {
+            exchange.close();
+        }
+    }
+
+    private long Gap(int request) {
+        return TimeUnit.NANOSECONDS.toMillis(requests.get(request)-requests.get(request-1));
+    }
+
+    @Test
+    public void testRate() throws IOException {
+        Fetcher fetcher = new PoliteFetcher(new HttpFetcher(), 10, 1, 4, 0);
+        for(int i = 0; i < 5; i++)
+            assertEquals(Page.OK, fetcher.Fetch(base+"/page?"+i).getStatus());
+        assertEquals(5, requests.size());
+        // one token every 100ms after the burst
+        for(int i = 1; i < requests.size(); i++)
+            assertTrue("gap of "+Gap(i)+"ms", Gap(i) >= 90);
+    }
+
+    @Test
+    public void testRetryAfter() throws IOException {
+        PoliteFetcher fetcher = new PoliteFetcher(new HttpFetcher(), 10, 5, 4, 3);
+        assertEquals(Page.OK, fetcher.Fetch(base+"/unavailable").getStatus());
+        assertEquals(2, requests.size());
+        assertTrue("gap of "+Gap(1)+"ms", Gap(1) >= 950);
+        // halved by the 503, then a little given back by the success
+        assertEquals(5.5, fetcher.getRate(base+"/"), 1e-9);
+
+        requests.clear();
+        try(Reader page = fetcher.Stream(base+"/unavailable")) {
+            assertTrue(page.read() >= 0);
+        }
+        assertEquals(2, requests.size());
+        assertTrue("gap of "+Gap(1)+"ms", Gap(1) >= 950);
+    }
+
+    @Test
+    public void testBackoff() throws IOException {
+        PoliteFetcher fetcher = new PoliteFetcher(new HttpFetcher(), 100, 5, 4, 2);
+        try {
+            fetcher.Fetch(base+"/throttled");
+            fail("FetchException expected");
+        }catch(FetchException ex) {
+            assertEquals(429, ex.getStatus());
+        }
+        assertEquals(3, requests.size()); // the first attempt and 2 retries
+        assertTrue(fetcher.getRate(base+"/") < 100);
+
+        // full jitter: anything up to a backoff that doubles on each attempt
+        FetchException throttled = new FetchException(base, 429, -1);
+        for(int attempt = 0; attempt < 20; attempt++) {
+            long backoff = Math.min(60000, 500L << attempt);
+            for(int i = 0; i < 100; i++) {
+                long delay = PoliteFetcher.Delay(throttled, attempt);
+                assertTrue("delay of "+delay+"ms", delay >= 0 && delay <= backoff);
+            }
+        }
+        assertEquals(2000, PoliteFetcher.Delay(new FetchException(base, 503, 2000), 5));
+        assertEquals(60000, PoliteFetcher.Delay(new FetchException(base, 503, 3600000), 0));
+    }
+
+    @Test
+    public void testNotThrottling() throws IOException {
+        try {
+            new PoliteFetcher(new HttpFetcher()).Fetch(base+"/missing");
+            fail("FetchException expected");
+        }catch(FetchException ex) {
+            assertEquals(404, ex.getStatus());
+        }
+        assertEquals(1, requests.size());
+        assertTrue(PoliteFetcher.IsThrottling(429));
+        assertTrue(PoliteFetcher.IsThrottling(503));
+        assertFalse(PoliteFetcher.IsThrottling(404));
+    }
+
+}